@@ -0,0 +1,52 @@
+package frc.robot.Robot25.subsystems.drive;
+
+import edu.wpi.first.hal.HAL;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of one main loop cycle of {@link Drive#periodic()} and {@link Module#periodic()} with fake
+ * IO, so only the odometry and logging work is measured. Needs the desktop HAL natives, which the
+ * jmh Gradle task puts on the library path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DrivePeriodicBenchmark {
+  /** Samples per 20 ms cycle, 5 at 250 Hz. */
+  @Param({"5"})
+  public int samplesPerCycle;
+
+  private Drive drive;
+  private Module module;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    HAL.initialize(500, 0);
+    drive = new Drive(
+        new FakeGyroIO(samplesPerCycle),
+        new FakeModuleIO(samplesPerCycle),
+        new FakeModuleIO(samplesPerCycle),
+        new FakeModuleIO(samplesPerCycle),
+        new FakeModuleIO(samplesPerCycle));
+    module = new Module(new FakeModuleIO(samplesPerCycle), 0, DriveConstants.FrontLeft);
+  }
+
+  @Benchmark
+  public void drivePeriodic() {
+    drive.periodic();
+  }
+
+  @Benchmark
+  public void modulePeriodic() {
+    module.periodic();
+  }
+}
@@ -0,0 +1,31 @@
+package frc.robot.Robot25.subsystems.drive;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.Robot25.subsystems.gyro.GyroIO;
+
+/** Gyro IO that reports a fixed number of odometry samples per cycle without any hardware. */
+public class FakeGyroIO implements GyroIO {
+  private final int samplesPerCycle;
+  private double timestamp = 0.0;
+
+  public FakeGyroIO(int samplesPerCycle) {
+    this.samplesPerCycle = samplesPerCycle;
+  }
+
+  @Override
+  public void updateInputs(GyroIOInputs inputs) {
+    inputs.connected = true;
+
+    if (inputs.odometryYawTimestamps.length != samplesPerCycle) {
+      inputs.odometryYawTimestamps = new double[samplesPerCycle];
+      inputs.odometryYawPositions = new double[samplesPerCycle];
+    }
+    for (int i = 0; i < samplesPerCycle; i++) {
+      timestamp += 0.004;
+      inputs.odometryYawTimestamps[i] = timestamp;
+      inputs.odometryYawPositions[i] = timestamp * 0.1;
+    }
+    inputs.yawPosition = new Rotation2d(timestamp * 0.1);
+    inputs.yawVelocityRadPerSec = 0.1;
+  }
+}
@@ -0,0 +1,35 @@
+package frc.robot.Robot25.subsystems.drive;
+
+/**
+ * Module IO that reports a fixed number of odometry samples per cycle without any hardware, reusing
+ * its arrays the same way {@link ModuleIOTalonFX} does.
+ */
+public class FakeModuleIO implements ModuleIO {
+  private final int samplesPerCycle;
+  private double timestamp = 0.0;
+
+  public FakeModuleIO(int samplesPerCycle) {
+    this.samplesPerCycle = samplesPerCycle;
+  }
+
+  @Override
+  public void updateInputs(ModuleIOInputs inputs) {
+    inputs.driveConnected = true;
+    inputs.turnConnected = true;
+    inputs.turnEncoderConnected = true;
+
+    if (inputs.odometryTimestamps.length != samplesPerCycle) {
+      inputs.odometryTimestamps = new double[samplesPerCycle];
+      inputs.odometryDrivePositionsRad = new double[samplesPerCycle];
+      inputs.odometryTurnPositions = new double[samplesPerCycle];
+    }
+    for (int i = 0; i < samplesPerCycle; i++) {
+      timestamp += 0.004;
+      inputs.odometryTimestamps[i] = timestamp;
+      inputs.odometryDrivePositionsRad[i] = timestamp * 10.0;
+      inputs.odometryTurnPositions[i] = 0.1;
+    }
+    inputs.drivePositionRad = timestamp * 10.0;
+    inputs.driveVelocityRadPerSec = 10.0;
+  }
+}
@@ -0,0 +1,157 @@
+package frc.robot.Robot25.subsystems.drive;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.util.Units;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of moving one main loop cycle of samples through the odometry queues of a single module,
+ * comparing the original boxed queues against {@link DoubleRingBuffer}.
+ *
+ * <p>In the contended groups the producer only offers while fewer than samplesPerCycle samples are
+ * waiting, like the odometry thread does between main loop cycles. Left unpaced it fills the queue
+ * within a few calls and the run ends up measuring dropped offers. The producer's offered and
+ * skipped counts are reported so the pacing can be checked.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OdometryQueueBenchmark {
+  /** Samples per 20 ms cycle, 5 at 250 Hz. */
+  @Param({"5"})
+  public int samplesPerCycle;
+
+  private Queue<Double> boxedTimestamps;
+  private Queue<Double> boxedDrivePositions;
+  private Queue<Double> boxedTurnPositions;
+
+  private DoubleRingBuffer timestamps;
+  private DoubleRingBuffer drivePositions;
+  private DoubleRingBuffer turnPositions;
+  private double[] timestampsOut = new double[0];
+  private double[] drivePositionsOut = new double[0];
+  private double[] turnPositionsOut = new double[0];
+
+  private double sample = 0.0;
+
+  /** Producer calls that offered a sample and that skipped because a cycle was already waiting. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ProducerCounters {
+    public long offered;
+    public long skipped;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      offered = 0;
+      skipped = 0;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    boxedTimestamps = new ArrayBlockingQueue<>(20);
+    boxedDrivePositions = new ArrayBlockingQueue<>(20);
+    boxedTurnPositions = new ArrayBlockingQueue<>(20);
+    timestamps = new DoubleRingBuffer(20);
+    drivePositions = new DoubleRingBuffer(20);
+    turnPositions = new DoubleRingBuffer(20);
+  }
+
+  /** Enqueue and drain the way ModuleIOTalonFX did before the ring buffers. */
+  @Benchmark
+  @Group("boxedCycle")
+  public Rotation2d[] boxedQueueCycle() {
+    for (int i = 0; i < samplesPerCycle; i++) {
+      sample += 0.004;
+      boxedTimestamps.offer(sample);
+      boxedDrivePositions.offer(sample);
+      boxedTurnPositions.offer(sample);
+    }
+    timestampsOut = boxedTimestamps.stream().mapToDouble((Double value) -> value).toArray();
+    drivePositionsOut = boxedDrivePositions.stream()
+        .mapToDouble((Double value) -> Units.rotationsToRadians(value)).toArray();
+    Rotation2d[] turn = boxedTurnPositions.stream()
+        .map((Double value) -> Rotation2d.fromRotations(value)).toArray(Rotation2d[]::new);
+    boxedTimestamps.clear();
+    boxedDrivePositions.clear();
+    boxedTurnPositions.clear();
+    return turn;
+  }
+
+  /** Enqueue and drain the way ModuleIOTalonFX does now. */
+  @Benchmark
+  @Group("ringCycle")
+  public double[] ringBufferCycle() {
+    for (int i = 0; i < samplesPerCycle; i++) {
+      sample += 0.004;
+      timestamps.offer(sample);
+      drivePositions.offer(sample);
+      turnPositions.offer(sample);
+    }
+    double scale = Units.rotationsToRadians(1.0);
+    timestampsOut = timestamps.drainUntil(Long.MAX_VALUE, 1.0);
+    drivePositionsOut = drivePositions.drainUntil(Long.MAX_VALUE, scale);
+    turnPositionsOut = turnPositions.drainUntil(Long.MAX_VALUE, scale);
+    return turnPositionsOut;
+  }
+
+  /** Producer half of a contended run against the boxed queue, standing in for the thread. */
+  @Benchmark
+  @Group("boxedContended")
+  @GroupThreads(1)
+  public boolean boxedProducer(ProducerCounters counters) {
+    if (boxedDrivePositions.size() >= samplesPerCycle) {
+      counters.skipped++;
+      return false;
+    }
+    counters.offered++;
+    return boxedDrivePositions.offer(sample += 0.004);
+  }
+
+  /** Consumer half of a contended run against the boxed queue, standing in for the main loop. */
+  @Benchmark
+  @Group("boxedContended")
+  @GroupThreads(1)
+  public double[] boxedConsumer() {
+    double[] values = boxedDrivePositions.stream().mapToDouble((Double value) -> value).toArray();
+    boxedDrivePositions.clear();
+    return values;
+  }
+
+  /** Producer half of a contended run against the ring buffer, standing in for the thread. */
+  @Benchmark
+  @Group("ringContended")
+  @GroupThreads(1)
+  public boolean ringProducer(ProducerCounters counters) {
+    if (drivePositions.size() >= samplesPerCycle) {
+      counters.skipped++;
+      return false;
+    }
+    counters.offered++;
+    return drivePositions.offer(sample += 0.004);
+  }
+
+  /** Consumer half of a contended run against the ring buffer, standing in for the main loop. */
+  @Benchmark
+  @Group("ringContended")
+  @GroupThreads(1)
+  public double[] ringConsumer() {
+    drivePositionsOut = drivePositions.drainUntil(Long.MAX_VALUE, 1.0);
+    return drivePositionsOut;
+  }
+}
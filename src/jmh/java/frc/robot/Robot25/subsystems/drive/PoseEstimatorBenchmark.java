@@ -0,0 +1,147 @@
+package frc.robot.Robot25.subsystems.drive;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of feeding one main loop cycle of odometry samples to the pose estimator, comparing the
+ * original per-sample allocation in Drive.periodic against the reused {@link OdometryFrame} path,
+ * and the cost of vision measurements in WPILib's estimator against {@link PoseHistoryEstimator}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PoseEstimatorBenchmark {
+  /** Samples per 20 ms cycle, 5 at 250 Hz. */
+  @Param({"5"})
+  public int samplesPerCycle;
+
+  /** Vision measurements per cycle, a couple of cameras' worth. */
+  @Param({"2"})
+  public int visionPerCycle;
+
+  private static final Matrix<N3, N1> VISION_STD_DEVS = VecBuilder.fill(0.5, 0.5, 1.0);
+
+  private SwerveDriveKinematics kinematics;
+  private SwerveDrivePoseEstimator poseEstimator;
+  private SwerveModulePosition[] lastModulePositions;
+  private SwerveModulePosition[] moduleDeltas;
+  private PoseHistoryEstimator historyEstimator;
+  private OdometryFrame frame;
+  private double timestamp = 0.0;
+
+  @Setup
+  public void setup() {
+    kinematics = new SwerveDriveKinematics(Drive.getModuleTranslations());
+    lastModulePositions = new SwerveModulePosition[4];
+    moduleDeltas = new SwerveModulePosition[4];
+    for (int m = 0; m < 4; m++) {
+      lastModulePositions[m] = new SwerveModulePosition();
+      moduleDeltas[m] = new SwerveModulePosition();
+    }
+    poseEstimator = new SwerveDrivePoseEstimator(
+        kinematics, new Rotation2d(), lastModulePositions, Pose2d.kZero);
+    historyEstimator = new PoseHistoryEstimator(
+        kinematics, new Rotation2d(), lastModulePositions, Pose2d.kZero, 250.0);
+    frame = new OdometryFrame(4, 20);
+  }
+
+  /** Writes the next cycle of samples, a slow forward arc, into the frame. */
+  private void fillFrame() {
+    frame.reset(samplesPerCycle, true);
+    for (int i = 0; i < samplesPerCycle; i++) {
+      timestamp += 0.004;
+      frame.setTimestamp(i, timestamp);
+      frame.setYaw(i, timestamp * 0.1);
+      for (int m = 0; m < 4; m++) {
+        frame.setModule(m, i, timestamp * 2.0, 0.1);
+      }
+    }
+  }
+
+  /** Per-sample allocation the way Drive.periodic worked before the odometry frame. */
+  @Benchmark
+  public Pose2d allocatingUpdate() {
+    fillFrame();
+    for (int i = 0; i < frame.getSampleCount(); i++) {
+      SwerveModulePosition[] modulePositions = new SwerveModulePosition[4];
+      SwerveModulePosition[] deltas = new SwerveModulePosition[4];
+      for (int m = 0; m < 4; m++) {
+        modulePositions[m] = new SwerveModulePosition(
+            frame.getDrivePositionMeters(m, i), new Rotation2d(frame.getTurnPositionRad(m, i)));
+        deltas[m] = new SwerveModulePosition(
+            modulePositions[m].distanceMeters - lastModulePositions[m].distanceMeters,
+            modulePositions[m].angle);
+        lastModulePositions[m] = modulePositions[m];
+      }
+      poseEstimator.updateWithTime(
+          frame.getTimestamp(i), new Rotation2d(frame.getYawPositionRad(i)), modulePositions);
+    }
+    return poseEstimator.getEstimatedPosition();
+  }
+
+  /** Reused module positions the way Drive.periodic works now. */
+  @Benchmark
+  public Pose2d reusedUpdate() {
+    fillFrame();
+    for (int i = 0; i < frame.getSampleCount(); i++) {
+      for (int m = 0; m < 4; m++) {
+        double positionMeters = frame.getDrivePositionMeters(m, i);
+        Rotation2d angle = new Rotation2d(frame.getTurnPositionRad(m, i));
+        moduleDeltas[m].distanceMeters = positionMeters - lastModulePositions[m].distanceMeters;
+        moduleDeltas[m].angle = angle;
+        lastModulePositions[m].distanceMeters = positionMeters;
+        lastModulePositions[m].angle = angle;
+      }
+      poseEstimator.updateWithTime(
+          frame.getTimestamp(i), new Rotation2d(frame.getYawPositionRad(i)), lastModulePositions);
+    }
+    return poseEstimator.getEstimatedPosition();
+  }
+
+  /** Odometry plus vision measurements 100 ms old, replaying WPILib's TreeMap history. */
+  @Benchmark
+  public Pose2d wpilibVisionUpdate() {
+    reusedUpdate();
+    for (int v = 0; v < visionPerCycle; v++) {
+      poseEstimator.addVisionMeasurement(
+          poseEstimator.getEstimatedPosition(), timestamp - 0.1, VISION_STD_DEVS);
+    }
+    return poseEstimator.getEstimatedPosition();
+  }
+
+  /** The same cycle through the primitive history estimator Drive uses now. */
+  @Benchmark
+  public Pose2d historyVisionUpdate() {
+    fillFrame();
+    for (int i = 0; i < frame.getSampleCount(); i++) {
+      for (int m = 0; m < 4; m++) {
+        lastModulePositions[m].distanceMeters = frame.getDrivePositionMeters(m, i);
+        lastModulePositions[m].angle = new Rotation2d(frame.getTurnPositionRad(m, i));
+      }
+      historyEstimator.updateWithTime(
+          frame.getTimestamp(i), new Rotation2d(frame.getYawPositionRad(i)), lastModulePositions);
+    }
+    for (int v = 0; v < visionPerCycle; v++) {
+      historyEstimator.addVisionMeasurement(
+          historyEstimator.getEstimatedPosition(), timestamp - 0.1, VISION_STD_DEVS);
+    }
+    return historyEstimator.getEstimatedPosition();
+  }
+}
@@ -8,22 +8,19 @@ package frc.lib;
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Predicate;
 
 /** Class for managing persistent alerts to be sent over NetworkTables. */
 public class Alert {
   private static Map<String, SendableAlerts> groups = new HashMap<String, SendableAlerts>();
 
   private final AlertType type;
+  private final SendableAlerts group;
   private boolean active = false;
-  private double activeStartTime = 0.0;
   private String text;
 
   /**
@@ -54,7 +51,8 @@ public class Alert {
 
     this.text = text;
     this.type = type;
-    groups.get(group).alerts.add(this);
+    this.group = groups.get(group);
+    this.group.alerts.add(this);
   }
 
   /**
@@ -63,7 +61,6 @@ public class Alert {
    */
   public void set(boolean active) {
     if (active && !this.active) {
-      activeStartTime = Timer.getFPGATimestamp();
       switch (type) {
         case ERROR:
           DriverStation.reportError(text, false);
@@ -75,27 +72,61 @@ public class Alert {
           System.out.println(text);
           break;
       }
+      group.activated(this);
+    } else if (!active && this.active) {
+      group.deactivated(this);
     }
     this.active = active;
   }
 
   /** Updates current alert text. */
   public void setText(String text) {
+    if (active && !text.equals(this.text)) {
+      group.invalidate(type);
+    }
     this.text = text;
   }
 
   private static class SendableAlerts implements Sendable {
     public final List<Alert> alerts = new ArrayList<>();
 
+    // Active alerts per type, newest first. Only changes when an alert is set or cleared, and the
+    // published arrays are cached until then.
+    private final List<List<Alert>> activeByType = new ArrayList<>();
+    private final String[][] cachedStrings = new String[AlertType.values().length][];
+
+    SendableAlerts() {
+      for (int i = 0; i < AlertType.values().length; i++) {
+        activeByType.add(new ArrayList<>());
+      }
+    }
+
+    void activated(Alert alert) {
+      // Prepending keeps the list in activation order, newest first, without any timestamps
+      activeByType.get(alert.type.ordinal()).add(0, alert);
+      invalidate(alert.type);
+    }
+
+    void deactivated(Alert alert) {
+      activeByType.get(alert.type.ordinal()).remove(alert);
+      invalidate(alert.type);
+    }
+
+    void invalidate(AlertType type) {
+      cachedStrings[type.ordinal()] = null;
+    }
+
     public String[] getStrings(AlertType type) {
-      Predicate<Alert> activeFilter = (Alert x) -> x.type == type && x.active;
-      Comparator<Alert> timeSorter =
-          (Alert a1, Alert a2) -> (int) (a2.activeStartTime - a1.activeStartTime);
-      return alerts.stream()
-          .filter(activeFilter)
-          .sorted(timeSorter)
-          .map((Alert a) -> a.text)
-          .toArray(String[]::new);
+      String[] strings = cachedStrings[type.ordinal()];
+      if (strings == null) {
+        List<Alert> active = activeByType.get(type.ordinal());
+        strings = new String[active.size()];
+        for (int i = 0; i < strings.length; i++) {
+          strings[i] = active.get(i).text;
+        }
+        cachedStrings[type.ordinal()] = strings;
+      }
+      return strings;
     }
 
     @Override
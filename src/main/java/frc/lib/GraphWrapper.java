@@ -1,20 +1,21 @@
 package frc.lib;
 
-import edu.wpi.first.networktables.GenericEntry;
-import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
-import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import frc.lib.telemetry.TelemetryPublisher;
 
 public class GraphWrapper {
   private String name;
-  private GenericEntry graph;
-  private String tab;
+  private double value = 0.0;
 
   public GraphWrapper(String name, String tab) {
+    this(name, tab, TelemetryPublisher.DASHBOARD_HZ);
+  }
+
+  public GraphWrapper(String name, String tab, double rateHz) {
     this.name = name;
-    this.graph = Shuffleboard.getTab(tab).add(name, 0).withWidget(BuiltInWidgets.kGraph).getEntry();
+    TelemetryPublisher.forSubsystem(tab, rateHz).add(name, () -> value);
   }
 
   public void setDouble(double value) {
-    if (graph != null) graph.setDouble(value);
+    this.value = value;
   }
 }
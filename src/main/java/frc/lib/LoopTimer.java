@@ -1,32 +1,104 @@
 package frc.lib;
 
-import edu.wpi.first.wpilibj.Timer;
+import frc.lib.faults.Fault;
+import java.util.ArrayList;
+import org.littletonrobotics.junction.Logger;
 
 /*
- * This class works the same way as WPILib's Tracer class:
- * https://github.com/wpilibsuite/allwpilib/blob/e64c20346dfe3252098f0efe51a93bb766881b82/wpilibj/src/main/java/edu/wpi/first/wpilibj/Tracer.java
+ * Measures how long one stage of the robot loop takes. Durations are recorded in nanoseconds into a
+ * fixed-size histogram, so measuring does not allocate. Once per second every timer publishes its
+ * p50, p99 and max to AdvantageKit under "LoopTimes/<name>" and raises a fault if the max went over
+ * budget.
+ *
+ * Wrap a stage with start() and stop(), and call LoopTimer.publishAll() once at the end of each
+ * loop.
  */
 
 public class LoopTimer {
-  // private String name;
-  private GraphWrapper graph;
+  private static final ArrayList<LoopTimer> timers = new ArrayList<>();
+  private static final long BUCKET_WIDTH_NANOS = 50_000; // 0.05 ms
+  private static final int BUCKET_COUNT = 400; // The last bucket also holds everything over 20 ms
+  private static final int PUBLISH_PERIOD_LOOPS = 50; // Once per second at 50 Hz
+  private static int loopsSincePublish = 0;
 
-  // private Fault fault;
-  // private double maxTimeMilliseconds;
+  private final long maxTimeNanos;
+  private final Fault fault;
+  private final String p50Key;
+  private final String p99Key;
+  private final String maxKey;
+
+  private final int[] buckets = new int[BUCKET_COUNT];
+  private int sampleCount = 0;
+  private long maxNanos = 0;
+  private long startNanos = 0;
 
   public LoopTimer(String name, double maxTimeMilliseconds) {
-    // this.name = name;
-    this.graph = new GraphWrapper(name, "LoopTimers");
-    // this.maxTimeMilliseconds = maxTimeMilliseconds;
-    // this.fault = new Fault(name + " exceeded " + maxTimeMilliseconds);
+    this.maxTimeNanos = (long) (maxTimeMilliseconds * 1e6);
+    this.fault = new Fault(name + " exceeded " + maxTimeMilliseconds + "ms");
+    this.p50Key = "LoopTimes/" + name + "/P50Ms";
+    this.p99Key = "LoopTimes/" + name + "/P99Ms";
+    this.maxKey = "LoopTimes/" + name + "/MaxMs";
+    timers.add(this);
+  }
+
+  public void start() {
+    startNanos = System.nanoTime();
+  }
+
+  public void stop() {
+    record(System.nanoTime() - startNanos);
   }
 
   public void measure(Runnable runable) {
-    double start = Timer.getFPGATimestamp();
+    start();
     runable.run();
-    double end = Timer.getFPGATimestamp();
-    graph.setDouble((end - start) * 1000);
-    // boolean isMaxTimeExceeded = (end - start) * 1000 > maxTimeMilliseconds;
-    // fault.setIsActive(isMaxTimeExceeded);
+    stop();
+  }
+
+  public void record(long durationNanos) {
+    int bucket = (int) Math.min(durationNanos / BUCKET_WIDTH_NANOS, BUCKET_COUNT - 1);
+    buckets[bucket]++;
+    sampleCount++;
+    maxNanos = Math.max(maxNanos, durationNanos);
+  }
+
+  /** Returns the upper edge of the bucket containing the given fraction of samples. */
+  private double percentileMilliseconds(double fraction) {
+    int rank = (int) Math.ceil(fraction * sampleCount);
+    int seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += buckets[i];
+      if (seen >= rank) {
+        return Math.min((i + 1) * BUCKET_WIDTH_NANOS, maxNanos) / 1e6;
+      }
+    }
+    return maxNanos / 1e6;
+  }
+
+  private void publish() {
+    if (sampleCount > 0) {
+      Logger.recordOutput(p50Key, percentileMilliseconds(0.5));
+      Logger.recordOutput(p99Key, percentileMilliseconds(0.99));
+      Logger.recordOutput(maxKey, maxNanos / 1e6);
+    }
+    fault.setIsActive(maxNanos > maxTimeNanos);
+
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] = 0;
+    }
+    sampleCount = 0;
+    maxNanos = 0;
+  }
+
+  /** Publishes and resets every timer once per second. Call once at the end of each loop. */
+  public static void publishAll() {
+    loopsSincePublish++;
+    if (loopsSincePublish < PUBLISH_PERIOD_LOOPS) {
+      return;
+    }
+    loopsSincePublish = 0;
+    for (int i = 0; i < timers.size(); i++) {
+      timers.get(i).publish();
+    }
   }
 }
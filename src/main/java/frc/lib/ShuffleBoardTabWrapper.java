@@ -2,9 +2,9 @@ package frc.lib;
 
 import edu.wpi.first.units.Measure;
 import edu.wpi.first.units.Unit;
-import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.SuppliedValueWidget;
+import frc.lib.telemetry.TelemetryPublisher;
 import frc.lib.tunables.TunableDouble;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
@@ -12,26 +12,20 @@ import java.util.function.Supplier;
 
 public interface ShuffleBoardTabWrapper {
   default void addGraph(String name, DoubleSupplier supplier) {
-    Shuffleboard.getTab(getName()).addDouble(name, supplier).withWidget(BuiltInWidgets.kGraph);
+    TelemetryPublisher.forSubsystem(getName()).add(name, supplier);
+  }
+
+  /** Graphs a value at a specific rate, e.g. TelemetryPublisher.TUNING_HZ while tuning. */
+  default void addGraph(String name, DoubleSupplier supplier, double rateHz) {
+    TelemetryPublisher.forSubsystem(getName(), rateHz).add(name, supplier);
   }
 
   default <U extends Unit> void addGraph(String name, Supplier<Measure<U>> supplier, U unit) {
-    Shuffleboard.getTab(getName())
-        .addDouble(
-            name,
-            () -> {
-              return supplier.get().in(unit);
-            })
-        .withWidget(BuiltInWidgets.kGraph);
+    addGraph(name, () -> supplier.get().in(unit));
   }
 
   default <U extends Unit> void addMeasure(String name, Supplier<Measure<U>> supplier, U unit) {
-    Shuffleboard.getTab(getName())
-        .addDouble(
-            name,
-            () -> {
-              return supplier.get().in(unit);
-            });
+    addGraph(name, () -> supplier.get().in(unit));
   }
 
   String getName();
@@ -3,43 +3,228 @@ package frc.lib.can;
 import edu.wpi.first.hal.CANStreamMessage;
 import edu.wpi.first.hal.can.CANJNI;
 import edu.wpi.first.hal.can.CANStreamOverflowException;
+import edu.wpi.first.wpilibj.DriverStation;
 import frc.lib.eventLoops.EventLoops;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.littletonrobotics.junction.Logger;
 
-public class CanStream {
-  private final int maxMessages = 1000;
-  private int canStreamSession;
-  private CANStreamMessage[] messageBuffer;
+/*
+ * Background CAN sniffer for the roboRIO bus. A capture thread drains the HAL CAN stream session
+ * into a preallocated ring of fixed size binary records, counts frames per arbitration ID, and
+ * estimates bus load. Once per second the main loop logs the load and the frame rate of every ID
+ * seen under "CanStream/".
+ *
+ * Records are RECORD_BYTES long, little endian: int arbitration ID, long timestamp, int length,
+ * then 8 data bytes. With spill enabled, every record is also copied into a memory-mapped file on
+ * the USB drive that wraps around when full. The file starts with a SPILL_HEADER_BYTES header: long
+ * total records written, int RECORD_BYTES, int record capacity. Records follow the header, and the
+ * next one goes in slot (total % capacity), so a reader can find the end of a cut-off capture.
+ *
+ * Construct it once and call start().
+ */
 
-  public CanStream() {
-    canStreamSession = CANJNI.openCANStreamSession(0, 0, maxMessages);
-    messageBuffer = new CANStreamMessage[maxMessages];
-    for (int i = 0; i < maxMessages; i++) {
+public class CanStream extends Thread {
+  public static final int RECORD_BYTES = 24;
+  private static final int MAX_MESSAGES = 1000;
+  private static final int RING_RECORDS = 8192;
+  private static final int MAX_IDS = 1024; // Power of two, open addressing table size
+  private static final long POLL_PERIOD_MILLIS = 10;
+  private static final long STATS_PERIOD_NANOS = 1_000_000_000L;
+  private static final long SPILL_BYTES = 64L * 1024 * 1024;
+  public static final int SPILL_HEADER_BYTES = 16;
+  private static final int SPILL_RECORDS =
+      (int) ((SPILL_BYTES - SPILL_HEADER_BYTES) / RECORD_BYTES);
+  private static final double BITRATE = 1e6;
+
+  private final int canStreamSession;
+  private final CANStreamMessage[] messageBuffer;
+
+  // Ring of recent records, guarded by this
+  private final ByteBuffer ring =
+      ByteBuffer.allocate(RING_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+  private long recordCount = 0;
+
+  private final MappedByteBuffer spill;
+
+  // Per ID frame counts for the current window, only touched by the capture thread
+  private final int[] ids = new int[MAX_IDS];
+  private final int[] counts = new int[MAX_IDS];
+  private final boolean[] used = new boolean[MAX_IDS];
+  private double windowBits = 0.0;
+  private long windowStartNanos = System.nanoTime();
+
+  private volatile Stats stats = new Stats(new long[0], new double[0], 0.0);
+  private volatile long overflowCount = 0;
+
+  /** Frame rates per arbitration ID and bus load over the last window. */
+  public record Stats(long[] ids, double[] ratesHz, double busLoad) {}
+
+  public CanStream(boolean spillToUsb) {
+    setName("CanStream");
+    setDaemon(true);
+    canStreamSession = CANJNI.openCANStreamSession(0, 0, MAX_MESSAGES);
+    messageBuffer = new CANStreamMessage[MAX_MESSAGES];
+    for (int i = 0; i < MAX_MESSAGES; i++) {
       messageBuffer[i] = new CANStreamMessage();
     }
-    EventLoops.everyLoop.bind(this::poll);
+    spill = spillToUsb ? openSpill() : null;
+    EventLoops.oncePerSec.bind(this::log);
+  }
+
+  public CanStream() {
+    this(false);
   }
 
-  public void poll() {
+  private static MappedByteBuffer openSpill() {
     try {
-      int numToRead = CANJNI.readCANStreamSession(canStreamSession, messageBuffer, maxMessages);
-      for (int i = 0; i < numToRead; i++) {
-        var message = messageBuffer[i];
-        process(message);
+      Path usbDir = Paths.get("/u").toRealPath();
+      if (!Files.isWritable(usbDir)) {
+        return null;
+      }
+      try (FileChannel channel = FileChannel.open(usbDir.resolve("canstream.bin"),
+          StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SPILL_BYTES);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(0, 0);
+        buffer.putInt(8, RECORD_BYTES);
+        buffer.putInt(12, SPILL_RECORDS);
+        return buffer;
       }
+    } catch (IOException e) {
+      DriverStation.reportError("CanStream spill file unavailable", e.getStackTrace());
+      return null;
+    }
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      poll();
+      try {
+        Thread.sleep(POLL_PERIOD_MILLIS);
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  private void poll() {
+    int numRead = 0;
+    try {
+      numRead = CANJNI.readCANStreamSession(canStreamSession, messageBuffer, MAX_MESSAGES);
     } catch (CANStreamOverflowException e) {
-      // TODO Auto-generated catch block
-      e.printStackTrace();
+      overflowCount++;
+    }
+    synchronized (this) {
+      for (int i = 0; i < numRead; i++) {
+        process(messageBuffer[i]);
+      }
+      if (spill != null && numRead > 0) {
+        // Written after the records, so the header never points past complete data
+        spill.putLong(0, recordCount);
+      }
     }
+
+    long now = System.nanoTime();
+    if (now - windowStartNanos >= STATS_PERIOD_NANOS) {
+      publishStats(now);
+    }
+  }
+
+  private void process(CANStreamMessage message) {
+    int offset = (int) (recordCount % RING_RECORDS) * RECORD_BYTES;
+    ring.putInt(offset, message.messageID);
+    ring.putLong(offset + 4, message.timestamp);
+    ring.putInt(offset + 12, message.length);
+    for (int b = 0; b < 8; b++) {
+      ring.put(offset + 16 + b, b < message.length ? message.data[b] : 0);
+    }
+    if (spill != null) {
+      int spillOffset = SPILL_HEADER_BYTES + (int) (recordCount % SPILL_RECORDS) * RECORD_BYTES;
+      spill.put(spillOffset, ring.array(), offset, RECORD_BYTES);
+    }
+    recordCount++;
+
+    count(message.messageID);
+    // Extended frame: 67 bits of framing plus the data, with roughly 20% stuffing
+    windowBits += (67 + 8 * message.length) * 1.2;
   }
 
-  public void process(CANStreamMessage message) {
-    System.out.print("Message ID: " + message.messageID);
-    System.out.print(" Timestamp: " + message.timestamp);
-    System.out.print(" Length: " + message.length);
-    System.out.print(" Data: ");
-    for (int i = 0; i < message.data.length; i++) {
-      System.out.print(message.data[i]);
+  private void count(int id) {
+    int slot = (id * 0x9E3779B9) >>> 22; // Top 10 bits of the hash, MAX_IDS slots
+    for (int probe = 0; probe < MAX_IDS; probe++) {
+      int index = (slot + probe) & (MAX_IDS - 1);
+      if (!used[index]) {
+        used[index] = true;
+        ids[index] = id;
+        counts[index] = 1;
+        return;
+      }
+      if (ids[index] == id) {
+        counts[index]++;
+        return;
+      }
     }
-    System.out.println(" ");
+  }
+
+  private void publishStats(long now) {
+    double seconds = (now - windowStartNanos) / 1e9;
+    int seen = 0;
+    for (int i = 0; i < MAX_IDS; i++) {
+      if (used[i]) {
+        seen++;
+      }
+    }
+    long[] statIds = new long[seen];
+    double[] rates = new double[seen];
+    int n = 0;
+    for (int i = 0; i < MAX_IDS; i++) {
+      if (used[i]) {
+        statIds[n] = ids[i];
+        rates[n] = counts[i] / seconds;
+        n++;
+      }
+    }
+    stats = new Stats(statIds, rates, windowBits / seconds / BITRATE);
+
+    Arrays.fill(used, false);
+    windowBits = 0.0;
+    windowStartNanos = now;
+  }
+
+  public Stats getStats() {
+    return stats;
+  }
+
+  /**
+   * Copies up to out.remaining() bytes of the most recent whole records into out, oldest first.
+   *
+   * @return number of records copied
+   */
+  public synchronized int copyRecentRecords(ByteBuffer out) {
+    long available = Math.min(recordCount, RING_RECORDS);
+    int records = (int) Math.min(available, out.remaining() / RECORD_BYTES);
+    for (long r = recordCount - records; r < recordCount; r++) {
+      int offset = (int) (r % RING_RECORDS) * RECORD_BYTES;
+      out.put(ring.array(), offset, RECORD_BYTES);
+    }
+    return records;
+  }
+
+  private void log() {
+    Stats current = stats;
+    Logger.recordOutput("CanStream/BusLoad", current.busLoad());
+    Logger.recordOutput("CanStream/Ids", current.ids());
+    Logger.recordOutput("CanStream/RatesHz", current.ratesHz());
+    Logger.recordOutput("CanStream/Overflows", overflowCount);
   }
 }
@@ -0,0 +1,172 @@
+package frc.lib.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.lib.eventLoops.EventLoops;
+import frc.lib.faults.Fault;
+import java.util.ArrayList;
+import org.littletonrobotics.junction.Logger;
+
+/*
+ * Chooses status frame rates for every Phoenix signal so each CAN bus stays under a target
+ * utilization. Subsystems declare each signal with the lowest rate they can live with and the rate
+ * they would like. Declared signals start at their preferred rate, and apply() lowers every
+ * signal's rate by the same fraction of its (preferred - minimum) range until the predicted load
+ * fits the budget.
+ *
+ * Devices that keep their other default status frames running add them with declareFixedLoad, so
+ * the frames the planner can't change still count against the budget.
+ *
+ * The prediction counts one frame per signal per update, which overestimates when Phoenix packs
+ * several signals into one frame and ignores control frames. The measured load is logged next to it
+ * under "CAN/<bus>/" so the two can be compared.
+ */
+
+public class StatusFramePlanner {
+  public static final double TARGET_UTILIZATION = 0.7;
+  // Approximate time on the bus per frame, in seconds, for an 8 byte classic frame with an extended
+  // ID and bit stuffing at 1 Mbps, and for an FD frame with an 8 Mbps data phase.
+  private static final double CLASSIC_FRAME_SECONDS = 150e-6;
+  private static final double FD_FRAME_SECONDS = 75e-6;
+  private static final double MIN_PHOENIX_RATE_HZ = 4.0;
+
+  private static final ArrayList<Bus> buses = new ArrayList<>();
+
+  private static class Declaration {
+    private final BaseStatusSignal signal;
+    private double minRateHz;
+    private double preferredRateHz;
+
+    Declaration(BaseStatusSignal signal, double minRateHz, double preferredRateHz) {
+      this.signal = signal;
+      this.minRateHz = minRateHz;
+      this.preferredRateHz = preferredRateHz;
+    }
+  }
+
+  private static class Bus {
+    private final String name;
+    private final boolean isRio;
+    // Null for the roboRIO bus, which is measured through RobotController
+    private final CANBus canBus;
+    private final double frameSeconds;
+    private final ArrayList<Declaration> declarations = new ArrayList<>();
+    private double fixedFramesPerSecond = 0.0;
+    private final Fault overBudgetFault;
+    private final String predictedKey;
+    private final String measuredKey;
+    private double predictedUtilization = 0.0;
+
+    Bus(String name) {
+      this.name = name;
+      this.isRio = name.equals("rio");
+      this.canBus = isRio ? null : new CANBus(name);
+      this.frameSeconds =
+          !isRio && canBus.isNetworkFD() ? FD_FRAME_SECONDS : CLASSIC_FRAME_SECONDS;
+      this.overBudgetFault = new Fault("CAN bus " + name + " over utilization budget");
+      this.predictedKey = "CAN/" + name + "/PredictedUtilization";
+      this.measuredKey = "CAN/" + name + "/MeasuredUtilization";
+    }
+
+    double measuredUtilization() {
+      if (isRio) {
+        return RobotController.getCANStatus().percentBusUtilization;
+      }
+      return canBus.getStatus().BusUtilization;
+    }
+
+    void plan() {
+      double minLoad = fixedFramesPerSecond * frameSeconds;
+      double flexibleLoad = 0.0;
+      for (Declaration declaration : declarations) {
+        minLoad += declaration.minRateHz * frameSeconds;
+        flexibleLoad += (declaration.preferredRateHz - declaration.minRateHz) * frameSeconds;
+      }
+      double fraction = 1.0;
+      if (flexibleLoad > 0.0) {
+        fraction = Math.max(0.0, Math.min(1.0, (TARGET_UTILIZATION - minLoad) / flexibleLoad));
+      }
+      predictedUtilization = minLoad + flexibleLoad * fraction;
+
+      for (Declaration declaration : declarations) {
+        double rate = declaration.minRateHz
+            + (declaration.preferredRateHz - declaration.minRateHz) * fraction;
+        declaration.signal.setUpdateFrequency(Math.max(MIN_PHOENIX_RATE_HZ, rate));
+      }
+    }
+
+    void log() {
+      double measured = measuredUtilization();
+      Logger.recordOutput(predictedKey, predictedUtilization);
+      Logger.recordOutput(measuredKey, measured);
+      overBudgetFault.setIsActive(measured > TARGET_UTILIZATION);
+    }
+  }
+
+  static {
+    EventLoops.oncePerSec.bind(
+        () -> {
+          for (int i = 0; i < buses.size(); i++) {
+            buses.get(i).log();
+          }
+        });
+  }
+
+  private static Bus getBus(String canBusName) {
+    String busName = canBusName.isEmpty() ? "rio" : canBusName;
+    for (Bus bus : buses) {
+      if (bus.name.equals(busName)) {
+        return bus;
+      }
+    }
+    Bus bus = new Bus(busName);
+    buses.add(bus);
+    return bus;
+  }
+
+  /**
+   * Declares the rates a set of signals needs. The signals are set to the preferred rate right
+   * away, and apply() may lower them toward the minimum. A signal declared more than once gets the
+   * highest of each rate, and is set to the highest preferred rate declared for it so far.
+   *
+   * @param canBusName name of the CAN bus the devices are on, "" or "rio" for the roboRIO bus
+   */
+  public static void declare(
+      String canBusName, double minRateHz, double preferredRateHz, BaseStatusSignal... signals) {
+    Bus bus = getBus(canBusName);
+    for (BaseStatusSignal signal : signals) {
+      Declaration existing = null;
+      for (Declaration declaration : bus.declarations) {
+        if (declaration.signal == signal) {
+          existing = declaration;
+        }
+      }
+      if (existing == null) {
+        existing = new Declaration(signal, minRateHz, preferredRateHz);
+        bus.declarations.add(existing);
+      } else {
+        existing.minRateHz = Math.max(existing.minRateHz, minRateHz);
+        existing.preferredRateHz = Math.max(existing.preferredRateHz, preferredRateHz);
+      }
+      signal.setUpdateFrequency(existing.preferredRateHz);
+    }
+  }
+
+  /**
+   * Adds status frames the planner does not control, such as the default frames of a device that
+   * is not bus-optimized, to a bus's predicted load.
+   *
+   * @param canBusName name of the CAN bus the device is on, "" or "rio" for the roboRIO bus
+   */
+  public static void declareFixedLoad(String canBusName, double framesPerSecond) {
+    getBus(canBusName).fixedFramesPerSecond += framesPerSecond;
+  }
+
+  /** Assigns rates to every declared signal. Call once after all subsystems are constructed. */
+  public static void apply() {
+    for (Bus bus : buses) {
+      bus.plan();
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package frc.lib.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import frc.lib.LoopTimer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/*
+ * Central list of the Phoenix status signals read by the main loop, grouped by CAN bus. IO layers
+ * register their signals once, and refreshAll() is called at the start of each loop, before the
+ * command scheduler runs, so every bus is refreshed with a single native call and every subsystem
+ * sees samples from the same moment.
+ *
+ * High-rate odometry signals are still sampled by PhoenixOdometryThread.
+ */
+
+public class StatusSignalRegistry {
+  private static final ArrayList<Bus> buses = new ArrayList<>();
+  private static final LoopTimer refreshTimer = new LoopTimer("StatusSignals/Refresh", 2.0);
+  private static long refreshCount = 0;
+
+  private static class Bus {
+    private final String name;
+    private BaseStatusSignal[] signals = new BaseStatusSignal[0];
+
+    Bus(String name) {
+      this.name = name;
+    }
+  }
+
+  /** Signals registered together by one IO layer. */
+  public static class Group {
+    private final BaseStatusSignal[] signals;
+
+    private Group(BaseStatusSignal[] signals) {
+      this.signals = signals;
+    }
+
+    /** Returns true if every signal in the group was received in the last refresh. */
+    public boolean isOK() {
+      return BaseStatusSignal.isAllGood(signals);
+    }
+
+    /** Returns a counter that increases every time the signals are refreshed. */
+    public long getRefreshCount() {
+      return refreshCount;
+    }
+  }
+
+  /**
+   * Registers signals to be refreshed every loop.
+   *
+   * @param canBusName name of the CAN bus the devices are on, "" or "rio" for the roboRIO bus
+   */
+  public static Group register(String canBusName, BaseStatusSignal... signals) {
+    String busName = canBusName.isEmpty() ? "rio" : canBusName;
+    Bus bus = null;
+    for (Bus existing : buses) {
+      if (existing.name.equals(busName)) {
+        bus = existing;
+      }
+    }
+    if (bus == null) {
+      bus = new Bus(busName);
+      buses.add(bus);
+    }
+    int start = bus.signals.length;
+    bus.signals = Arrays.copyOf(bus.signals, start + signals.length);
+    System.arraycopy(signals, 0, bus.signals, start, signals.length);
+    return new Group(signals.clone());
+  }
+
+  /** Refreshes every registered signal, one batch per bus. Call once at the start of each loop. */
+  public static void refreshAll() {
+    refreshTimer.start();
+    for (int i = 0; i < buses.size(); i++) {
+      BaseStatusSignal.refreshAll(buses.get(i).signals);
+    }
+    refreshCount++;
+    refreshTimer.stop();
+  }
+}
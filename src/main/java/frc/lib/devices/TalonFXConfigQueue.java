@@ -0,0 +1,216 @@
+package frc.lib.devices;
+
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.SoftwareLimitSwitchConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.configs.TalonFXConfigurator;
+import com.ctre.phoenix6.hardware.TalonFX;
+import edu.wpi.first.wpilibj.Timer;
+import frc.lib.Alert;
+import frc.lib.eventLoops.EventLoops;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+ * Applies TalonFX config changes on a background thread so a blocking config transaction never
+ * stalls the robot loop. Changes are queued per device and per config group, and a newer change to
+ * the same group replaces the pending one, so a burst of tunable edits turns into one apply of only
+ * the group that changed. Failed applies are retried, and the result is shown through an Alert per
+ * device that is updated from the main loop. The applied alert clears itself after a few seconds.
+ * A submit can pass a callback to run on the main loop once its change has been applied.
+ */
+
+public class TalonFXConfigQueue extends Thread {
+  private static final double APPLY_TIMEOUT_SECONDS = 0.1;
+  private static final int MAX_ATTEMPTS = 3;
+  private static final double APPLIED_ALERT_SECONDS = 5.0;
+  private static TalonFXConfigQueue instance = null;
+
+  public enum Group {
+    SLOT0,
+    MOTION_MAGIC,
+    MOTOR_OUTPUT,
+    SOFTWARE_LIMIT_SWITCH
+  }
+
+  private enum Status {
+    IDLE,
+    PENDING,
+    APPLIED,
+    FAILED
+  }
+
+  private record Change(String config, Runnable onApplied) {}
+
+  private static class Device {
+    private final TalonFX talon;
+    private final Alert appliedAlert;
+    private final Alert failedAlert;
+    // Serialized group configs waiting to be applied, guarded by the queue
+    private final EnumMap<Group, Change> pending = new EnumMap<>(Group.class);
+    private volatile Status status = Status.IDLE;
+    private volatile double appliedSeconds = 0.0;
+
+    Device(String name, TalonFX talon) {
+      this.talon = talon;
+      this.appliedAlert = new Alert(name + " config applied", Alert.AlertType.INFO);
+      this.failedAlert = new Alert(name + " config apply failed", Alert.AlertType.ERROR);
+    }
+
+    void updateAlerts() {
+      Status current = status;
+      appliedAlert.set(current == Status.APPLIED
+          && Timer.getFPGATimestamp() - appliedSeconds < APPLIED_ALERT_SECONDS);
+      failedAlert.set(current == Status.FAILED);
+    }
+  }
+
+  private final ArrayList<Device> devices = new ArrayList<>();
+  // Callbacks of applied changes, run on the main loop
+  private final ConcurrentLinkedQueue<Runnable> completed = new ConcurrentLinkedQueue<>();
+
+  public static synchronized TalonFXConfigQueue getInstance() {
+    if (instance == null) {
+      instance = new TalonFXConfigQueue();
+      instance.start();
+    }
+    return instance;
+  }
+
+  private TalonFXConfigQueue() {
+    setName("TalonFXConfigQueue");
+    setDaemon(true);
+    EventLoops.oncePerSec.bind(
+        () -> {
+          synchronized (this) {
+            for (Device device : devices) {
+              device.updateAlerts();
+            }
+          }
+        });
+    EventLoops.everyLoop.bind(
+        () -> {
+          Runnable callback;
+          while ((callback = completed.poll()) != null) {
+            callback.run();
+          }
+        });
+  }
+
+  /**
+   * Queues one config group of the given configuration to be applied to the talon. The group is
+   * copied immediately, so the caller can keep modifying its configuration.
+   */
+  public void submit(String name, TalonFX talon, TalonFXConfiguration configs, Group group) {
+    submit(name, talon, configs, group, null);
+  }
+
+  /**
+   * Same as submit, and runs onApplied on the main loop once the change has been applied. It is not
+   * run if the apply fails or a newer change to the same group replaces this one first.
+   */
+  public void submit(
+      String name, TalonFX talon, TalonFXConfiguration configs, Group group, Runnable onApplied) {
+    String serialized =
+        switch (group) {
+          case SLOT0 -> configs.Slot0.serialize();
+          case MOTION_MAGIC -> configs.MotionMagic.serialize();
+          case MOTOR_OUTPUT -> configs.MotorOutput.serialize();
+          case SOFTWARE_LIMIT_SWITCH -> configs.SoftwareLimitSwitch.serialize();
+        };
+    synchronized (this) {
+      Device device = getDevice(name, talon);
+      device.pending.put(group, new Change(serialized, onApplied));
+      device.status = Status.PENDING;
+      notifyAll();
+    }
+  }
+
+  private Device getDevice(String name, TalonFX talon) {
+    for (Device device : devices) {
+      if (device.talon == talon) {
+        return device;
+      }
+    }
+    Device device = new Device(name, talon);
+    devices.add(device);
+    return device;
+  }
+
+  private static StatusCode apply(TalonFXConfigurator configurator, Group group, String config) {
+    switch (group) {
+      case SLOT0:
+        var slot0 = new Slot0Configs();
+        slot0.deserialize(config);
+        return configurator.apply(slot0, APPLY_TIMEOUT_SECONDS);
+      case MOTION_MAGIC:
+        var motionMagic = new MotionMagicConfigs();
+        motionMagic.deserialize(config);
+        return configurator.apply(motionMagic, APPLY_TIMEOUT_SECONDS);
+      case MOTOR_OUTPUT:
+        var motorOutput = new MotorOutputConfigs();
+        motorOutput.deserialize(config);
+        return configurator.apply(motorOutput, APPLY_TIMEOUT_SECONDS);
+      default:
+        var softLimits = new SoftwareLimitSwitchConfigs();
+        softLimits.deserialize(config);
+        return configurator.apply(softLimits, APPLY_TIMEOUT_SECONDS);
+    }
+  }
+
+  @Override
+  public void run() {
+    EnumMap<Group, Change> batch = new EnumMap<>(Group.class);
+    while (true) {
+      Device device = null;
+      synchronized (this) {
+        while (device == null) {
+          for (Device candidate : devices) {
+            if (!candidate.pending.isEmpty()) {
+              device = candidate;
+              break;
+            }
+          }
+          if (device == null) {
+            try {
+              wait();
+            } catch (InterruptedException e) {
+              return;
+            }
+          }
+        }
+        batch.putAll(device.pending);
+        device.pending.clear();
+      }
+
+      boolean ok = true;
+      TalonFXConfigurator configurator = device.talon.getConfigurator();
+      for (var entry : batch.entrySet()) {
+        StatusCode code = StatusCode.OK;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+          code = apply(configurator, entry.getKey(), entry.getValue().config());
+          if (code.isOK()) {
+            break;
+          }
+        }
+        if (code.isOK() && entry.getValue().onApplied() != null) {
+          completed.add(entry.getValue().onApplied());
+        }
+        ok &= code.isOK();
+      }
+      batch.clear();
+
+      synchronized (this) {
+        // A newer change may have been queued while this batch was being applied
+        if (device.pending.isEmpty()) {
+          device.appliedSeconds = Timer.getFPGATimestamp();
+          device.status = ok ? Status.APPLIED : Status.FAILED;
+        }
+      }
+    }
+  }
+}
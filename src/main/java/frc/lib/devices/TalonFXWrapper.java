@@ -2,7 +2,10 @@ package frc.lib.devices;
 
 import static edu.wpi.first.units.Units.*;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.ControlRequest;
 import com.ctre.phoenix6.controls.DutyCycleOut;
 import com.ctre.phoenix6.controls.MotionMagicVoltage;
 import com.ctre.phoenix6.controls.MusicTone;
@@ -17,6 +20,7 @@ import edu.wpi.first.units.AngularVelocityUnit;
 import edu.wpi.first.units.CurrentUnit;
 import edu.wpi.first.units.Units;
 import edu.wpi.first.units.measure.*;
+import edu.wpi.first.wpilibj.Timer;
 import frc.lib.ShuffleBoardTabWrapper;
 import frc.lib.eventLoops.EventLoops;
 import frc.lib.faults.Fault;
@@ -38,6 +42,35 @@ public class TalonFXWrapper implements ShuffleBoardTabWrapper {
   private TunableMeasure<CurrentUnit> stallCurrentLimit;
   private TunableMeasure<AngularVelocityUnit> stallRotationLimit;
 
+  // Reused control requests. An unchanged request is only resent after CONTROL_REFRESH_SECONDS,
+  // well inside the motor's control timeout.
+  private static final double CONTROL_REFRESH_SECONDS = 0.05;
+  private final VelocityVoltage velocityRequest = new VelocityVoltage(0);
+  private final VoltageOut voltageRequest = new VoltageOut(0);
+  private final PositionVoltage positionRequest = new PositionVoltage(0);
+  private final MotionMagicVoltage motionMagicRequest = new MotionMagicVoltage(0);
+  private final DutyCycleOut dutyCycleRequest = new DutyCycleOut(0);
+  private final MusicTone musicToneRequest = new MusicTone(0);
+  private ControlRequest lastRequest = null;
+  private double lastRequestValue = Double.NaN;
+  private double lastRequestSeconds = 0.0;
+
+  // Status signals are refreshed by the StatusSignalRegistry and served from cached primitives
+  private static final double DEFAULT_SIGNAL_FREQUENCY_HZ = 50.0;
+  // Rough rate of the default status frames left running besides the declared signals, since
+  // other code still reads signals like faults and temperature from them
+  private static final double UNDECLARED_FRAMES_HZ = 200.0;
+  private StatusSignal<Angle> positionSignal;
+  private StatusSignal<AngularVelocity> velocitySignal;
+  private StatusSignal<Current> torqueCurrentSignal;
+  private BaseStatusSignal[] signals;
+  private StatusSignalRegistry.Group signalGroup;
+  private long cachedRefreshCount = -1;
+  private double positionRotations = 0.0;
+  private double velocityRotationsPerSecond = 0.0;
+  private double torqueCurrentAmps = 0.0;
+  private double signalTimestampSeconds = 0.0;
+
   // private Measure<Velocity<Angle>> velocitySetPoint = Units.RPM.of(0);
 
   public TalonFXWrapper(int id, String name, boolean isInverted, NeutralModeValue neutralMode,
@@ -54,6 +87,17 @@ public class TalonFXWrapper implements ShuffleBoardTabWrapper {
     // TalonFXLogPowerFaults.setupChecks(this);
     softLimitOverrideFault = new Fault(getName() + " Device ID: " + id + " Soft Limit Overrided");
 
+    positionSignal = talon.getPosition(false);
+    velocitySignal = talon.getVelocity(false);
+    torqueCurrentSignal = talon.getTorqueCurrent(false);
+    signals = new BaseStatusSignal[] {positionSignal, velocitySignal, torqueCurrentSignal};
+    StatusFramePlanner.declare(talon.getNetwork(), DEFAULT_SIGNAL_FREQUENCY_HZ,
+        DEFAULT_SIGNAL_FREQUENCY_HZ, positionSignal, velocitySignal);
+    StatusFramePlanner.declare(talon.getNetwork(), 10.0, DEFAULT_SIGNAL_FREQUENCY_HZ,
+        torqueCurrentSignal);
+    StatusFramePlanner.declareFixedLoad(talon.getNetwork(), UNDECLARED_FRAMES_HZ);
+    signalGroup = StatusSignalRegistry.register(talon.getNetwork(), signals);
+
     talonFXConfigs = new TalonFXConfiguration();
 
     talonFXConfigs.MotorOutput.Inverted =
@@ -86,7 +130,7 @@ public class TalonFXWrapper implements ShuffleBoardTabWrapper {
     new TunableDouble("P", P, getName(), (isInit, value) -> {
       talonFXConfigs.Slot0.kP = value;
       if (!isInit) {
-        talon.getConfigurator().apply(talonFXConfigs);
+        queueConfig(TalonFXConfigQueue.Group.SLOT0);
       }
     });
 
@@ -94,26 +138,27 @@ public class TalonFXWrapper implements ShuffleBoardTabWrapper {
         (isInit, value) -> {
           talonFXConfigs.MotorOutput.NeutralMode = value;
           if (!isInit) {
-            talon.getConfigurator().apply(talonFXConfigs);
+            queueConfig(TalonFXConfigQueue.Group.MOTOR_OUTPUT);
           }
         });
 
     new TunableDouble("I", I, getName(), (isInit, value) -> {
       talonFXConfigs.Slot0.kI = value;
       if (!isInit) {
-        talon.getConfigurator().apply(talonFXConfigs);
+        queueConfig(TalonFXConfigQueue.Group.SLOT0);
       }
     });
 
     new TunableDouble("D", D, getName(), (isInit, value) -> {
       talonFXConfigs.Slot0.kD = value;
       if (!isInit) {
-        talon.getConfigurator().apply(talonFXConfigs);
+        queueConfig(TalonFXConfigQueue.Group.SLOT0);
       }
     });
 
-    addGraph("Curent", () -> getTorqueCurrent(), Units.Amps);
-    addGraph("velocity", () -> getVelocity(), Units.RPM);
+    // Cached signals skip Measure boxing, velocity goes from rotations per second to RPM
+    addGraph("Curent", this::getTorqueCurrentAmps);
+    addGraph("velocity", () -> getVelocityRotationsPerSecond() * 60.0);
     // new TunableDouble("G", G, getName(), value -> {
     // talonFXConfigs.Slot0.kG = value;
     // talon.getConfigurator().apply(talonFXConfigs);
@@ -123,14 +168,14 @@ public class TalonFXWrapper implements ShuffleBoardTabWrapper {
       talonFXConfigs.MotionMagic.MotionMagicAcceleration =
           value.in(RotationsPerSecond.per(Seconds));
       if (!isInit) {
-        talon.getConfigurator().apply(talonFXConfigs);
+        queueConfig(TalonFXConfigQueue.Group.MOTION_MAGIC);
       }
     });
 
     new TunableMeasure<>("CruiseVelocity", CruiseVelocity, getName(), (isInit, value) -> {
       talonFXConfigs.MotionMagic.MotionMagicCruiseVelocity = value.in(RotationsPerSecond);
       if (!isInit) {
-        talon.getConfigurator().apply(talonFXConfigs);
+        queueConfig(TalonFXConfigQueue.Group.MOTION_MAGIC);
       }
     });
 
@@ -179,22 +224,29 @@ public class TalonFXWrapper implements ShuffleBoardTabWrapper {
   public void setSoftLimitsEnabled(boolean enabled) {
     talonFXConfigs.SoftwareLimitSwitch.ForwardSoftLimitEnable = enabled;
     talonFXConfigs.SoftwareLimitSwitch.ReverseSoftLimitEnable = enabled;
-    configureTalons();
-
-    softLimitOverrideFault.setIsActive(enabled);
+    // Only report the new state once the talon has actually taken it
+    TalonFXConfigQueue.getInstance()
+        .submit(getName(), talon, talonFXConfigs,
+            TalonFXConfigQueue.Group.SOFTWARE_LIMIT_SWITCH,
+            () -> softLimitOverrideFault.setIsActive(enabled));
+    if (followerFx != null) {
+      TalonFXConfigQueue.getInstance().submit(getName() + " follower", followerFx, talonFXConfigs,
+          TalonFXConfigQueue.Group.SOFTWARE_LIMIT_SWITCH);
+    }
   }
 
-  private void configureTalons() {
-    talon.getConfigurator().apply(talonFXConfigs, 0.000001);
+  private void queueConfig(TalonFXConfigQueue.Group group) {
+    TalonFXConfigQueue.getInstance().submit(getName(), talon, talonFXConfigs, group);
     if (followerFx != null) {
-      followerFx.getConfigurator().apply(talonFXConfigs, 0.000001);
+      TalonFXConfigQueue.getInstance()
+          .submit(getName() + " follower", followerFx, talonFXConfigs, group);
     }
   }
 
   public void setNeutralMode(NeutralModeValue value) {
     if (talonFXConfigs.MotorOutput.NeutralMode != value) {
       talonFXConfigs.MotorOutput.NeutralMode = value;
-      configureTalons();
+      queueConfig(TalonFXConfigQueue.Group.MOTOR_OUTPUT);
     }
   }
 
@@ -207,8 +259,10 @@ public class TalonFXWrapper implements ShuffleBoardTabWrapper {
   public void holdPosition() {
     if (!isPositionBeingHeld) {
       isPositionBeingHeld = true;
-      double position = talon.getPosition().getValueAsDouble();
-      talon.setControl(new MotionMagicVoltage(position));
+      double position = getPositionRotations();
+      if (shouldSendControl(motionMagicRequest, position)) {
+        talon.setControl(motionMagicRequest.withPosition(position));
+      }
     }
   }
 
@@ -227,17 +281,76 @@ public class TalonFXWrapper implements ShuffleBoardTabWrapper {
     }
   }
 
+  /**
+   * Sets how often the position, velocity and current signals are sent by the motor, overriding the
+   * rates chosen by the StatusFramePlanner.
+   */
+  public void setSignalUpdateFrequency(double frequencyHz) {
+    BaseStatusSignal.setUpdateFrequencyForAll(frequencyHz, signals);
+  }
+
+  /** Copies the signal values from the last registry refresh, once per refresh. */
+  private void refreshSignals() {
+    long refreshCount = signalGroup.getRefreshCount();
+    if (refreshCount == cachedRefreshCount) {
+      return;
+    }
+    cachedRefreshCount = refreshCount;
+    positionRotations = positionSignal.getValueAsDouble();
+    velocityRotationsPerSecond = velocitySignal.getValueAsDouble();
+    torqueCurrentAmps = torqueCurrentSignal.getValueAsDouble();
+    signalTimestampSeconds = positionSignal.getTimestamp().getTime();
+  }
+
+  public double getPositionRotations() {
+    refreshSignals();
+    return positionRotations;
+  }
+
+  public double getVelocityRotationsPerSecond() {
+    refreshSignals();
+    return velocityRotationsPerSecond;
+  }
+
+  public double getTorqueCurrentAmps() {
+    refreshSignals();
+    return torqueCurrentAmps;
+  }
+
+  /** Returns the time the cached signal values were received, in FPGA seconds. */
+  public double getSignalTimestampSeconds() {
+    refreshSignals();
+    return signalTimestampSeconds;
+  }
+
   public Angle getPosition() {
-    return Units.Rotations.of(talon.getPosition().getValueAsDouble());
+    return Units.Rotations.of(getPositionRotations());
+  }
+
+  /** Returns false if the same request with the same value was sent recently enough to skip. */
+  private boolean shouldSendControl(ControlRequest request, double value) {
+    double now = Timer.getFPGATimestamp();
+    if (request == lastRequest
+        && value == lastRequestValue
+        && now - lastRequestSeconds < CONTROL_REFRESH_SECONDS) {
+      return false;
+    }
+    lastRequest = request;
+    lastRequestValue = value;
+    lastRequestSeconds = now;
+    return true;
   }
 
   public void setVelocity(AngularVelocity speed) {
-    talon.setControl(new VelocityVoltage(speed.in(RotationsPerSecond)));
+    double velocity = speed.in(RotationsPerSecond);
+    if (shouldSendControl(velocityRequest, velocity)) {
+      talon.setControl(velocityRequest.withVelocity(velocity));
+    }
     isPositionBeingHeld = false;
   }
 
   public AngularVelocity getVelocity() {
-    return Units.RotationsPerSecond.of(talon.getVelocity().getValueAsDouble());
+    return Units.RotationsPerSecond.of(getVelocityRotationsPerSecond());
   }
 
   public boolean isAtReference(AngularVelocity speed, AngularVelocity tolerance) {
@@ -247,27 +360,40 @@ public class TalonFXWrapper implements ShuffleBoardTabWrapper {
 
   // multaplying by 10 to convert duty cycle to voltage
   public void set(double speed) {
-    talon.setControl(new VoltageOut(speed * 10));
+    double volts = speed * 10;
+    if (shouldSendControl(voltageRequest, volts)) {
+      talon.setControl(voltageRequest.withOutput(volts));
+    }
     isPositionBeingHeld = false;
   }
 
   public void setMotionMagicVoltage(Angle position) {
-    talon.setControl(new PositionVoltage(position.in(Rotations)));
+    double rotations = position.in(Rotations);
+    if (shouldSendControl(positionRequest, rotations)) {
+      talon.setControl(positionRequest.withPosition(rotations));
+    }
     isPositionBeingHeld = false;
   }
 
   public void setVoltageOut(Voltage voltage) {
-    talon.setControl(new VoltageOut(voltage.in(Volts)));
+    double volts = voltage.in(Volts);
+    if (shouldSendControl(voltageRequest, volts)) {
+      talon.setControl(voltageRequest.withOutput(volts));
+    }
     isPositionBeingHeld = false;
   }
 
   public void setDutyCycleOut(double cycle) {
-    talon.setControl(new DutyCycleOut(cycle));
+    if (shouldSendControl(dutyCycleRequest, cycle)) {
+      talon.setControl(dutyCycleRequest.withOutput(cycle));
+    }
     isPositionBeingHeld = false;
   }
 
   public void setMusicTone(double frequency) {
-    talon.setControl(new MusicTone(frequency));
+    if (shouldSendControl(musicToneRequest, frequency)) {
+      talon.setControl(musicToneRequest.withAudioFrequency(frequency));
+    }
     isPositionBeingHeld = false;
   }
 
@@ -280,13 +406,14 @@ public class TalonFXWrapper implements ShuffleBoardTabWrapper {
   }
 
   public Current getTorqueCurrent() {
-    return Units.Amps.of(talon.getTorqueCurrent().getValueAsDouble());
+    return Units.Amps.of(getTorqueCurrentAmps());
   }
 
   // From: https://www.chiefdelphi.com/t/falcon-500-detecting-motor-stalls/428106
   private boolean isStalledInternal() {
-    if (getTorqueCurrent().gte(stallCurrentLimit.getValue())) {
-      return getVelocity().lte(stallRotationLimit.getValue());
+    if (getTorqueCurrentAmps() >= stallCurrentLimit.getValue().in(Amps)) {
+      return getVelocityRotationsPerSecond()
+          <= stallRotationLimit.getValue().in(RotationsPerSecond);
     } else {
       return false;
     }
@@ -7,11 +7,15 @@
 // // import frc.twilight.swerve.subsystems.Swerve;
 // // import frc.twilight.swerve.vectors.DriveVector;
 // import edu.wpi.first.wpilibj2.command.Command;
-// import frc.lib.limeLight.LimelightHelpers;
-// import frc.lib.limeLight.LimelightHelpers.LimelightTarget_Detector;
+// import frc.lib.limeLight.LimelightHelpers.RawDetection;
+// import frc.lib.limeLight.LimelightHelpers.RawResults;
 // import frc.lib.tunables.TunableDouble;
 
 // public class ObjectTracker extends Command {
+//   // Index of "note" in the detector model's labels, rawdetections only carries class ids
+//   private static final int NOTE_CLASS_ID = 0;
+
+//   private final RawResults results = new RawResults("limelight-right", 8);
 //   private PIDController turningPid = new PIDController(0, 0, 0);
 //   private PIDController movingPid = new PIDController(0, 0, 0);
 
@@ -55,16 +59,13 @@
 //     double outA = 0;
 //     boolean foundNote = false;
 
-//     var results = LimelightHelpers.getLatestResults("limelight-right");
-//     for (LimelightTarget_Detector target : results.targets_Detector) {
-//       if (target.className.equals("note")) {
-//         out = target.tx;
-//         outA = target.ta;
-//         foundNote = true;
-//         // System.out.println(outA);
-//       } else {
-//         System.out.println("unknown: " + target.className);
-//       }
+//     results.update();
+//     RawDetection note = results.getDetection(NOTE_CLASS_ID);
+//     if (note != null) {
+//       out = note.txnc;
+//       outA = note.ta;
+//       foundNote = true;
+//       // System.out.println(outA);
 //     }
 
 //     out = turningPid.calculate(out);
@@ -1,7 +1,19 @@
 package frc.lib.eventLoops;
 
 public class EventLoops {
-  public static final IsolatedEventLoop oncePerSec = new IsolatedEventLoop();
-  public static final IsolatedEventLoop oncePerMin = new IsolatedEventLoop();
-  public static final IsolatedEventLoop everyLoop = new IsolatedEventLoop();
+  // Periods are in 20 ms robot loops
+  public static final IsolatedEventLoop oncePerSec = new IsolatedEventLoop("OncePerSec", 50, 2.0);
+  public static final IsolatedEventLoop oncePerMin =
+      new IsolatedEventLoop("OncePerMin", 50 * 60, 2.0);
+  public static final IsolatedEventLoop everyLoop = new IsolatedEventLoop("EveryLoop", 1, 2.0);
+
+  private static long loopCount = 0;
+
+  /** Polls every event loop that is due this tick. Call once per robot loop. */
+  public static void pollAll() {
+    everyLoop.poll(loopCount);
+    oncePerSec.poll(loopCount);
+    oncePerMin.poll(loopCount);
+    loopCount++;
+  }
 }
@@ -1,17 +1,34 @@
 package frc.lib.eventLoops;
 
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.event.EventLoop;
+import frc.lib.LoopTimer;
+import java.util.ArrayList;
 
+/**
+ * A set of actions that run every {@code periodLoops} robot loops. Each bound action is given its
+ * own phase within the period, round robin, so a once per second loop runs a few of its actions on
+ * each 20 ms tick instead of all of them on the same tick. Exceptions thrown by an action are
+ * reported and do not stop the other actions.
+ */
 public class IsolatedEventLoop {
-  private EventLoop eventLoop;
+  private final int periodLoops;
+  private final LoopTimer timer;
+  // Actions to run on each tick of the period, only created once something is bound to that tick
+  private final ArrayList<Runnable>[] actionsByPhase;
+  private int nextPhase = 0;
 
-  public IsolatedEventLoop() {
-    eventLoop = new EventLoop();
+  @SuppressWarnings("unchecked")
+  public IsolatedEventLoop(String name, int periodLoops, double maxTimeMilliseconds) {
+    this.periodLoops = periodLoops;
+    this.timer = new LoopTimer("EventLoops/" + name, maxTimeMilliseconds);
+    this.actionsByPhase = new ArrayList[periodLoops];
   }
 
   public void bind(Runnable action) {
-    eventLoop.bind(
+    if (actionsByPhase[nextPhase] == null) {
+      actionsByPhase[nextPhase] = new ArrayList<>();
+    }
+    actionsByPhase[nextPhase].add(
         () -> {
           try {
             action.run();
@@ -19,13 +36,26 @@ public class IsolatedEventLoop {
             DriverStation.reportError("ISOLATED EVENT LOOP ERROR", e.getStackTrace());
           }
         });
+    nextPhase = (nextPhase + 1) % periodLoops;
   }
 
-  public void poll() {
-    eventLoop.poll();
+  /** Runs the actions whose phase matches the given robot loop count. */
+  public void poll(long loopCount) {
+    ArrayList<Runnable> actions = actionsByPhase[(int) (loopCount % periodLoops)];
+    if (actions == null) {
+      return;
+    }
+    timer.start();
+    for (int i = 0; i < actions.size(); i++) {
+      actions.get(i).run();
+    }
+    timer.stop();
   }
 
   public void clear() {
-    eventLoop.clear();
+    for (int i = 0; i < periodLoops; i++) {
+      actionsByPhase[i] = null;
+    }
+    nextPhase = 0;
   }
 }
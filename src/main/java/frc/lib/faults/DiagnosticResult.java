@@ -0,0 +1,43 @@
+package frc.lib.faults;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+
+/**
+ * Latest value produced by a check on the {@link DiagnosticsThread}. Written by that thread and
+ * read by the main loop without locking.
+ *
+ * <p>Checks registered with a merge function also accumulate every value published since the main
+ * loop last called {@link #take()}, so a short lived result is not overwritten before it is seen.
+ */
+public class DiagnosticResult<T> {
+  private volatile T latest = null;
+  private final BinaryOperator<T> merge;
+  private final AtomicReference<T> pending = new AtomicReference<>();
+
+  DiagnosticResult(BinaryOperator<T> merge) {
+    this.merge = merge;
+  }
+
+  void publish(T value) {
+    latest = value;
+    if (merge != null) {
+      pending.accumulateAndGet(
+          value, (T previous, T next) -> previous == null ? next : merge.apply(previous, next));
+    }
+  }
+
+  /** Returns the latest result, or null if the check has not finished running yet. */
+  public T get() {
+    return latest;
+  }
+
+  /**
+   * Returns every result published since the last call merged together, and starts accumulating
+   * again. Returns null if nothing was published since the last call, or if the check was
+   * registered without a merge function.
+   */
+  public T take() {
+    return pending.getAndSet(null);
+  }
+}
@@ -0,0 +1,95 @@
+package frc.lib.faults;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Low priority daemon thread for diagnostic checks that can block, such as CAN round trips or file
+ * system access. Each check runs at its own period and publishes its latest result through a
+ * {@link DiagnosticResult}, which the main loop reads without waiting on this thread.
+ */
+public class DiagnosticsThread extends Thread {
+  private static final long POLL_PERIOD_MILLIS = 20;
+  private static DiagnosticsThread instance = null;
+
+  private final CopyOnWriteArrayList<Check<?>> checks = new CopyOnWriteArrayList<>();
+
+  private static class Check<T> {
+    private final String name;
+    private final long periodNanos;
+    private final Supplier<T> supplier;
+    private final DiagnosticResult<T> result;
+    private long nextRunNanos = 0;
+
+    Check(String name, double periodSeconds, Supplier<T> supplier, BinaryOperator<T> merge) {
+      this.name = name;
+      this.periodNanos = (long) (periodSeconds * 1e9);
+      this.supplier = supplier;
+      this.result = new DiagnosticResult<>(merge);
+    }
+
+    void runIfDue(long nowNanos) {
+      if (nowNanos - nextRunNanos < 0) {
+        return;
+      }
+      nextRunNanos = nowNanos + periodNanos;
+      try {
+        result.publish(supplier.get());
+      } catch (Exception e) {
+        DriverStation.reportError("DIAGNOSTIC CHECK ERROR: " + name, e.getStackTrace());
+      }
+    }
+  }
+
+  public static synchronized DiagnosticsThread getInstance() {
+    if (instance == null) {
+      instance = new DiagnosticsThread();
+      instance.start();
+    }
+    return instance;
+  }
+
+  private DiagnosticsThread() {
+    setName("DiagnosticsThread");
+    setDaemon(true);
+    setPriority(Thread.MIN_PRIORITY);
+  }
+
+  /**
+   * Runs the supplier on this thread every periodSeconds.
+   *
+   * @return handle the main loop can read the latest result from
+   */
+  public <T> DiagnosticResult<T> register(String name, double periodSeconds, Supplier<T> supplier) {
+    return register(name, periodSeconds, supplier, null);
+  }
+
+  /**
+   * Like {@link #register(String, double, Supplier)}, but results are also merged together until
+   * the main loop takes them with {@link DiagnosticResult#take()}. Use this for checks that clear
+   * what they read, such as sticky faults.
+   */
+  public <T> DiagnosticResult<T> register(
+      String name, double periodSeconds, Supplier<T> supplier, BinaryOperator<T> merge) {
+    Check<T> check = new Check<>(name, periodSeconds, supplier, merge);
+    checks.add(check);
+    return check.result;
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      long now = System.nanoTime();
+      for (Check<?> check : checks) {
+        check.runIfDue(now);
+      }
+      try {
+        Thread.sleep(POLL_PERIOD_MILLIS);
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+}
@@ -14,6 +14,8 @@ import java.nio.file.Paths;
 import java.util.function.BooleanSupplier;
 
 public final class Fault {
+  private final int id;
+  private final String description;
   private boolean isActive = false;
   private boolean wasActive = false;
   private Alert errorAlert;
@@ -24,12 +26,17 @@ public final class Fault {
     this.errorAlert = new Alert("[Active] " + description, Alert.AlertType.ERROR);
     this.warningAlert = new Alert("[Recent] " + description, Alert.AlertType.WARNING);
     this.booleanLog = new BooleanLogEntry(DataLogManager.getLog(), description);
-    FaultRegistry.register(this);
+    this.booleanLog.append(false);
+    this.description = description;
+    this.id = FaultRegistry.register(this);
   }
 
   public void setIsActive(boolean isActive) {
+    if (isActive != this.isActive) {
+      FaultRegistry.setActive(id, isActive);
+      FaultTransitionLog.record(id, isActive);
+    }
     this.isActive = isActive;
-    booleanLog.append(isActive);
 
     if (isActive) {
       wasActive = true;
@@ -50,6 +57,18 @@ public final class Fault {
     return wasActive;
   }
 
+  void appendToLog(boolean isActive, long timestampMicros) {
+    booleanLog.append(isActive, timestampMicros);
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
   public static void autoUpdating(
       String description, IsolatedEventLoop oncepersec, BooleanSupplier booleanSupplier) {
     Fault fault = new Fault(description);
@@ -63,13 +82,41 @@ public final class Fault {
     autoUpdating(description, EventLoops.oncePerSec, booleanSupplier);
   }
 
+  /**
+   * Like {@link #autoUpdating(String, BooleanSupplier)}, but the supplier runs on the {@link
+   * DiagnosticsThread} so a slow check never blocks the robot loop. The fault picks up the latest
+   * result once per second.
+   */
+  public static void autoUpdatingInBackground(
+      String description, double periodSeconds, BooleanSupplier booleanSupplier) {
+    Fault fault = new Fault(description);
+    DiagnosticResult<Boolean> result =
+        DiagnosticsThread.getInstance()
+            .register(description, periodSeconds, booleanSupplier::getAsBoolean);
+    EventLoops.oncePerSec.bind(
+        () -> {
+          Boolean isActive = result.get();
+          if (isActive != null) {
+            fault.setIsActive(isActive);
+          }
+        });
+  }
+
+  /**
+   * Logs the fault registry and writes pending fault transitions to the DataLog once per second.
+   * Call once from robotInit.
+   */
+  public static void setupLogging() {
+    EventLoops.oncePerSec.bind(FaultRegistry::logSnapshot);
+    EventLoops.oncePerSec.bind(FaultTransitionLog::flush);
+  }
+
   public static void setupDefaultFaults() {
-    // autoUpdating("canBusUtilization", () -> {
-    // return RobotController.getCANStatus().percentBusUtilization > 0.8;
-    // });
+    // CAN bus utilization is checked per bus by StatusFramePlanner
 
-    autoUpdating(
+    autoUpdatingInBackground(
         "No USB connected into RoboRio",
+        5.0,
         () -> {
           if (RobotBase.isSimulation()) {
             return false;
@@ -87,6 +134,7 @@ public final class Fault {
             }
           }
         });
+
     // Different stages:
     // https://docs.wpilib.org/en/stable/docs/software/roborio-info/roborio-brownouts.html
     autoUpdating("RoboRio browned out", EventLoops.everyLoop, RobotController::isBrownedOut);
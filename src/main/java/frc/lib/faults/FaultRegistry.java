@@ -1,29 +1,111 @@
 package frc.lib.faults;
 
+import edu.wpi.first.wpilibj.Timer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import org.littletonrobotics.junction.Logger;
+
+/*
+ * Every Fault owns an id into a pair of bitsets, one for currently active and one for previously
+ * active faults. Fault.setIsActive only reports state changes here, and the registry keeps running
+ * counts so hasAnyActive() and hasAnyPreviouslyActive() do not have to scan the faults.
+ */
 
 public class FaultRegistry {
   private static ArrayList<Fault> faults = new ArrayList<>();
+  private static long[] activeBits = new long[1];
+  private static long[] previouslyActiveBits = new long[1];
+  private static int activeCount = 0;
+  private static int previouslyActiveCount = 0;
+  private static double[] firstActiveSeconds = new double[64];
+  private static double[] lastActiveSeconds = new double[64];
+
+  /** Active fault ids with the first and most recent time each one became active. */
+  public record Snapshot(
+      int[] activeIds, double[] firstActiveSeconds, double[] lastActiveSeconds) {}
 
   public static boolean hasAnyActive() {
-    for (Fault fault : faults) {
-      if (fault.isActive()) {
-        return true;
+    return activeCount > 0;
+  }
+
+  public static boolean hasAnyPreviouslyActive() {
+    return previouslyActiveCount > 0;
+  }
+
+  public static int getActiveCount() {
+    return activeCount;
+  }
+
+  public static Fault get(int id) {
+    return faults.get(id);
+  }
+
+  /** Adds a fault to the registry and returns its id. */
+  public static int register(Fault fault) {
+    int id = faults.size();
+    faults.add(fault);
+    int words = (id >> 6) + 1;
+    if (words > activeBits.length) {
+      activeBits = Arrays.copyOf(activeBits, words * 2);
+      previouslyActiveBits = Arrays.copyOf(previouslyActiveBits, words * 2);
+    }
+    if (id >= firstActiveSeconds.length) {
+      firstActiveSeconds = Arrays.copyOf(firstActiveSeconds, id * 2);
+      lastActiveSeconds = Arrays.copyOf(lastActiveSeconds, id * 2);
+    }
+    return id;
+  }
+
+  /** Called by Fault when its active state flips. */
+  static void setActive(int id, boolean isActive) {
+    int word = id >> 6;
+    long mask = 1L << id;
+    boolean wasSet = (activeBits[word] & mask) != 0;
+    if (isActive == wasSet) {
+      return;
+    }
+    if (isActive) {
+      activeBits[word] |= mask;
+      activeCount++;
+      double now = Timer.getFPGATimestamp();
+      if ((previouslyActiveBits[word] & mask) == 0) {
+        previouslyActiveBits[word] |= mask;
+        previouslyActiveCount++;
+        firstActiveSeconds[id] = now;
       }
+      lastActiveSeconds[id] = now;
+    } else {
+      activeBits[word] &= ~mask;
+      activeCount--;
     }
-    return false;
   }
 
-  public static boolean hasAnyPreviouslyActive() {
-    for (Fault fault : faults) {
-      if (fault.wasActive()) {
-        return true;
+  public static Snapshot snapshot() {
+    int[] ids = new int[activeCount];
+    double[] first = new double[activeCount];
+    double[] last = new double[activeCount];
+    int n = 0;
+    for (int word = 0; word < activeBits.length && n < activeCount; word++) {
+      long bits = activeBits[word];
+      while (bits != 0) {
+        int id = (word << 6) + Long.numberOfTrailingZeros(bits);
+        ids[n] = id;
+        first[n] = firstActiveSeconds[id];
+        last[n] = lastActiveSeconds[id];
+        n++;
+        bits &= bits - 1;
       }
     }
-    return false;
+    return new Snapshot(ids, first, last);
   }
 
-  public static void register(Fault fault) {
-    faults.add(fault);
+  /** Records the active fault snapshot to AdvantageKit under "Faults/". */
+  public static void logSnapshot() {
+    Snapshot snapshot = snapshot();
+    Logger.recordOutput("Faults/ActiveCount", activeCount);
+    Logger.recordOutput("Faults/PreviouslyActiveCount", previouslyActiveCount);
+    Logger.recordOutput("Faults/ActiveIds", snapshot.activeIds());
+    Logger.recordOutput("Faults/FirstActiveSeconds", snapshot.firstActiveSeconds());
+    Logger.recordOutput("Faults/LastActiveSeconds", snapshot.lastActiveSeconds());
   }
 }
@@ -0,0 +1,39 @@
+package frc.lib.faults;
+
+import edu.wpi.first.wpilibj.RobotController;
+
+/*
+ * Ring of recent fault state transitions. Fault only records a transition when its state actually
+ * changes, and the ring is written out to each fault's DataLog entry in one batch, either once per
+ * second or when the ring fills up. Entries keep the FPGA time of the transition, so batching does
+ * not change the timestamps seen in the log.
+ */
+
+final class FaultTransitionLog {
+  private static final int CAPACITY = 256;
+
+  private static final long[] timestampsMicros = new long[CAPACITY];
+  private static final int[] faultIds = new int[CAPACITY];
+  private static final boolean[] activeStates = new boolean[CAPACITY];
+  private static int count = 0;
+
+  private FaultTransitionLog() {}
+
+  static void record(int faultId, boolean isActive) {
+    if (count == CAPACITY) {
+      flush();
+    }
+    timestampsMicros[count] = RobotController.getFPGATime();
+    faultIds[count] = faultId;
+    activeStates[count] = isActive;
+    count++;
+  }
+
+  /** Writes every pending transition to the DataLog. */
+  static void flush() {
+    for (int i = 0; i < count; i++) {
+      FaultRegistry.get(faultIds[i]).appendToLog(activeStates[i], timestampsMicros[i]);
+    }
+    count = 0;
+  }
+}
@@ -27,20 +27,58 @@ public class PDHLogPowerFaults {
   }
 
   private static void checkPDH(IsolatedEventLoop oncepersec) {
+    // Reading and clearing sticky faults are blocking CAN calls, so they run off the robot loop.
+    // Polling clears the flags, so each pass is ORed into the result until the main loop takes it.
+    DiagnosticResult<Integer> polled =
+        DiagnosticsThread.getInstance()
+            .register(
+                "PDH sticky faults",
+                1.0,
+                () -> {
+                  PowerDistributionStickyFaults faults = pdh.getStickyFaults();
+                  pdh.clearStickyFaults();
+                  return toBits(faults);
+                },
+                (Integer a, Integer b) -> a | b);
     oncepersec.bind(
         () -> {
+          Integer bits = polled.take();
+          if (bits == null) {
+            // Not polled since the last read, keep the current state
+            return;
+          }
+          PowerDistributionStickyFaults faults = new PowerDistributionStickyFaults(bits);
           if (firstCheckPdh) {
-            logFaults(pdh.getStickyFaults());
-            pdh.clearStickyFaults();
+            logFaults(faults);
             firstCheckPdh = false;
           }
-
-          PowerDistributionStickyFaults faults = pdh.getStickyFaults();
           updateFaults(faults);
-          pdh.clearStickyFaults();
         });
   }
 
+  /** Packs sticky faults into the bitfield layout PowerDistributionStickyFaults(int) reads. */
+  private static int toBits(PowerDistributionStickyFaults faults) {
+    int bits = 0;
+    for (int channel = 0; channel < 24; channel++) {
+      if (faults.getBreakerFault(channel)) {
+        bits |= 1 << channel;
+      }
+    }
+    if (faults.Brownout) {
+      bits |= 1 << 24;
+    }
+    if (faults.CanWarning) {
+      bits |= 1 << 25;
+    }
+    if (faults.CanBusOff) {
+      bits |= 1 << 26;
+    }
+    if (faults.HasReset) {
+      bits |= 1 << 27;
+    }
+    return bits;
+  }
+
   private static void addBreakerIgnore(int... unpluggedBreakers) {
     try {
       for (int i : unpluggedBreakers) unusedBreakers.add(i);
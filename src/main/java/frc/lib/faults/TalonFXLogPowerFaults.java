@@ -24,10 +24,15 @@ public class TalonFXLogPowerFaults {
       this.clearStickyFault = clearStickyFault;
     }
 
-    void update() {
-      var hasFault = getStickyFault.getValue();
-      fault.setIsActive(hasFault);
+    /** Reads and clears the sticky fault over CAN. Runs on the diagnostics thread. */
+    boolean poll() {
+      boolean hasFault = getStickyFault.refresh().getValue();
       clearStickyFault.apply(0.0000000001); // ctre does not like 0 in config calls
+      return hasFault;
+    }
+
+    void update(boolean hasFault) {
+      fault.setIsActive(hasFault);
     }
   }
 
@@ -128,16 +133,39 @@ public class TalonFXLogPowerFaults {
                 // unable to find clearStickyFault for UsingFusedCANcoderWhileUnlicensed
                 (double timeoutSecs) -> StatusCode.OK));
 
+    // Polling clears the flags, so each pass is a bitmask ORed into the result until the main
+    // loop takes it. A flag that set and cleared between two main loop reads is still reported.
+    DiagnosticResult<Long> polled =
+        DiagnosticsThread.getInstance()
+            .register(
+                wrapper.getName() + " sticky faults",
+                1.0,
+                () -> {
+                  long mask = 0;
+                  for (int i = 0; i < stickyFaults.size(); i++) {
+                    if (stickyFaults.get(i).poll()) {
+                      mask |= 1L << i;
+                    }
+                  }
+                  return mask;
+                },
+                (Long a, Long b) -> a | b);
     EventLoops.oncePerSec.bind(
         () -> {
-          for (StickyFaults faults : stickyFaults) {
-            faults.update();
+          Long mask = polled.take();
+          if (mask == null) {
+            // Not polled since the last read, keep the current state
+            return;
+          }
+          for (int i = 0; i < stickyFaults.size(); i++) {
+            stickyFaults.get(i).update((mask & (1L << i)) != 0);
           }
         });
 
     var device_temp = talonFX.getDeviceTemp();
-    Fault.autoUpdating(
+    Fault.autoUpdatingInBackground(
         wrapper.getName() + "MoterTempToHigh",
+        1.0,
         () -> {
           var value = device_temp.refresh().getValue();
           // unable to find clearStickyFault for device_temp
@@ -16,9 +16,12 @@ import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.DoubleArrayEntry;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoubleSubscriber;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
 import edu.wpi.first.networktables.TimestampedDoubleArray;
 import frc.lib.limeLight.LimelightHelpers.LimelightResults;
 import frc.lib.limeLight.LimelightHelpers.PoseEstimate;
@@ -26,6 +29,7 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -378,6 +382,9 @@ public class LimelightHelpers {
     public double distToRobot = 0;
     public double ambiguity = 0;
 
+    /** Makes an empty RawFiducial to be filled in by decodePoseEstimate */
+    public RawFiducial() {}
+
     public RawFiducial(
         int id,
         double txnc,
@@ -410,6 +417,9 @@ public class LimelightHelpers {
     public double corner3_X = 0;
     public double corner3_Y = 0;
 
+    /** Makes an empty RawDetection to be filled in by decodeRawDetections */
+    public RawDetection() {}
+
     public RawDetection(
         int classId,
         double txnc,
@@ -481,6 +491,195 @@ public class LimelightHelpers {
     }
   }
 
+  /**
+   * Pose estimate meant to be reused across frames, filled in place by decodePoseEstimate. Unlike
+   * PoseEstimate it holds no Pose2d, the pose is kept as the raw botpose values, and its fiducial
+   * array is a buffer with only the first rawFiducialCount entries valid.
+   */
+  public static class RawPoseEstimate {
+    /** Botpose as sent by the Limelight: x, y, z in meters, then roll, pitch, yaw in degrees */
+    public final double[] rawPose = new double[6];
+
+    public double timestampSeconds;
+    public double latency;
+    public int tagCount;
+    public double tagSpan;
+    public double avgTagDist;
+    public double avgTagArea;
+    public RawFiducial[] rawFiducials;
+    public int rawFiducialCount;
+
+    /**
+     * Makes an estimate with room for maxFiducials tags, so decodePoseEstimate does not allocate
+     * until a frame sees more tags than that.
+     */
+    public RawPoseEstimate(int maxFiducials) {
+      this.rawFiducials = new RawFiducial[maxFiducials];
+      for (int i = 0; i < maxFiducials; i++) {
+        this.rawFiducials[i] = new RawFiducial();
+      }
+    }
+
+    /** Returns the pose as a Pose2d. This allocates, so avoid it in code that runs per frame. */
+    public Pose2d toPose2d() {
+      return new Pose2d(rawPose[0], rawPose[1], Rotation2d.fromDegrees(rawPose[5]));
+    }
+  }
+
+  /**
+   * Reads every update of a botpose entry since the last call into a fixed pool of estimates.
+   * The subscriber queues each frame the Limelight publishes, so nothing is missed when the camera
+   * runs faster than the robot loop. The estimates are reused every call; copy out anything that
+   * needs to outlive the next readQueue(). The only allocation left is the array NetworkTables
+   * returns from readQueue.
+   */
+  public static class PoseEstimateReader {
+    private static final int MAX_FIDUCIALS = 16;
+
+    private final DoubleArraySubscriber subscriber;
+    private final RawPoseEstimate[] estimates;
+    private int count = 0;
+
+    /**
+     * @param limelightName the Limelight's NetworkTables name
+     * @param entryName the botpose entry to read, for example "botpose_wpiblue"
+     * @param capacity the most frames kept per read, older frames are dropped past this
+     */
+    public PoseEstimateReader(String limelightName, String entryName, int capacity) {
+      subscriber =
+          getLimelightNTTable(limelightName)
+              .getDoubleArrayTopic(entryName)
+              .subscribe(
+                  new double[0],
+                  PubSubOption.keepDuplicates(true),
+                  PubSubOption.sendAll(true),
+                  PubSubOption.pollStorage(capacity));
+      estimates = new RawPoseEstimate[capacity];
+      for (int i = 0; i < capacity; i++) {
+        estimates[i] = new RawPoseEstimate(MAX_FIDUCIALS);
+      }
+    }
+
+    /**
+     * Decodes every update since the last call, oldest first.
+     *
+     * @return the number of estimates available from get()
+     */
+    public int readQueue() {
+      TimestampedDoubleArray[] updates = subscriber.readQueue();
+      int first = Math.max(0, updates.length - estimates.length);
+      count = 0;
+      for (int i = first; i < updates.length; i++) {
+        if (decodePoseEstimate(updates[i].value, updates[i].timestamp, estimates[count])) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public RawPoseEstimate get(int index) {
+      return estimates[index];
+    }
+
+    /** Local time in microseconds of the last update received, or 0 if there has been none. */
+    public long getLastChange() {
+      return subscriber.getLastChange();
+    }
+
+    public void close() {
+      subscriber.close();
+    }
+  }
+
+  /**
+   * Reusable targeting results decoded straight from a Limelight's NetworkTables values, for code
+   * that reads results every loop. This covers what getLatestResults is normally used for (valid
+   * target, latencies, fiducials and detector targets) without pulling and parsing the JSON dump.
+   * Detector targets only carry the class ID, since class names are only published in the JSON.
+   */
+  public static class RawResults {
+    public boolean valid;
+    public double pipelineID;
+    public double latency_pipeline;
+    public double latency_capture;
+
+    /** Fiducials seen in the last frame, the first fiducialCount entries are valid */
+    public final RawFiducial[] fiducials;
+
+    public int fiducialCount;
+
+    /** Detector targets in the last frame, largest first, the first detectionCount are valid */
+    public final RawDetection[] detections;
+
+    public int detectionCount;
+
+    private final DoubleSubscriber tvSubscriber;
+    private final DoubleSubscriber pipelineSubscriber;
+    private final DoubleSubscriber latencyPipelineSubscriber;
+    private final DoubleSubscriber latencyCaptureSubscriber;
+    private final DoubleArraySubscriber fiducialSubscriber;
+    private final DoubleArraySubscriber detectionSubscriber;
+
+    /**
+     * @param limelightName the Limelight's NetworkTables name
+     * @param maxTargets the most fiducials and detections kept per frame
+     */
+    public RawResults(String limelightName, int maxTargets) {
+      NetworkTable table = getLimelightNTTable(limelightName);
+      tvSubscriber = table.getDoubleTopic("tv").subscribe(0);
+      pipelineSubscriber = table.getDoubleTopic("getpipe").subscribe(0);
+      latencyPipelineSubscriber = table.getDoubleTopic("tl").subscribe(0);
+      latencyCaptureSubscriber = table.getDoubleTopic("cl").subscribe(0);
+      fiducialSubscriber = table.getDoubleArrayTopic("rawfiducials").subscribe(new double[0]);
+      detectionSubscriber = table.getDoubleArrayTopic("rawdetections").subscribe(new double[0]);
+
+      fiducials = new RawFiducial[maxTargets];
+      detections = new RawDetection[maxTargets];
+      for (int i = 0; i < maxTargets; i++) {
+        fiducials[i] = new RawFiducial();
+        detections[i] = new RawDetection();
+      }
+    }
+
+    /**
+     * Reads the latest values into this object.
+     *
+     * @return whether the Limelight has a valid target
+     */
+    public boolean update() {
+      valid = tvSubscriber.get() == 1.0;
+      pipelineID = pipelineSubscriber.get();
+      latency_pipeline = latencyPipelineSubscriber.get();
+      latency_capture = latencyCaptureSubscriber.get();
+      fiducialCount = decodeRawFiducials(fiducialSubscriber.get(), fiducials);
+      detectionCount = decodeRawDetections(detectionSubscriber.get(), detections);
+      return valid;
+    }
+
+    /** Returns the largest detection of a class in the last frame, or null if there is none. */
+    public RawDetection getDetection(int classId) {
+      for (int i = 0; i < detectionCount; i++) {
+        if (detections[i].classId == classId) {
+          return detections[i];
+        }
+      }
+      return null;
+    }
+
+    public void close() {
+      tvSubscriber.close();
+      pipelineSubscriber.close();
+      latencyPipelineSubscriber.close();
+      latencyCaptureSubscriber.close();
+      fiducialSubscriber.close();
+      detectionSubscriber.close();
+    }
+  }
+
   private static ObjectMapper mapper;
 
   /** Print JSON Parse time to the console in milliseconds */
@@ -634,7 +833,7 @@ public class LimelightHelpers {
   public static RawDetection[] getRawDetections(String limelightName) {
     var entry = LimelightHelpers.getLimelightNTTableEntry(limelightName, "rawdetections");
     var rawDetectionArray = entry.getDoubleArray(new double[0]);
-    int valsPerEntry = 11;
+    int valsPerEntry = 12;
     if (rawDetectionArray.length % valsPerEntry != 0) {
       return new RawDetection[0];
     }
@@ -666,6 +865,122 @@ public class LimelightHelpers {
     return rawDetections;
   }
 
+  /**
+   * Decodes a botpose array into a caller-owned RawPoseEstimate without allocating. rawFiducials is
+   * only replaced when the frame has more tags than it can hold.
+   *
+   * @param poseArray the botpose array as published by the Limelight
+   * @param timestampMicros the NetworkTables server time the array was received
+   * @param out the estimate to fill
+   * @return false if the array does not hold a pose, in which case out is unchanged
+   */
+  public static boolean decodePoseEstimate(
+      double[] poseArray, long timestampMicros, RawPoseEstimate out) {
+    if (poseArray.length < 6) {
+      return false;
+    }
+    for (int i = 0; i < 6; i++) {
+      out.rawPose[i] = poseArray[i];
+    }
+    out.latency = extractArrayEntry(poseArray, 6);
+    out.tagCount = (int) extractArrayEntry(poseArray, 7);
+    out.tagSpan = extractArrayEntry(poseArray, 8);
+    out.avgTagDist = extractArrayEntry(poseArray, 9);
+    out.avgTagArea = extractArrayEntry(poseArray, 10);
+
+    // Convert server timestamp from microseconds to seconds and adjust for latency
+    out.timestampSeconds = (timestampMicros / 1000000.0) - (out.latency / 1000.0);
+
+    int valsPerFiducial = 7;
+    int fiducialCount =
+        poseArray.length == 11 + valsPerFiducial * out.tagCount ? Math.max(out.tagCount, 0) : 0;
+    if (out.rawFiducials.length < fiducialCount) {
+      out.rawFiducials = Arrays.copyOf(out.rawFiducials, fiducialCount);
+    }
+    for (int i = 0; i < fiducialCount; i++) {
+      RawFiducial fiducial = out.rawFiducials[i];
+      if (fiducial == null) {
+        fiducial = new RawFiducial();
+        out.rawFiducials[i] = fiducial;
+      }
+      int baseIndex = 11 + (i * valsPerFiducial);
+      fiducial.id = (int) poseArray[baseIndex];
+      fiducial.txnc = poseArray[baseIndex + 1];
+      fiducial.tync = poseArray[baseIndex + 2];
+      fiducial.ta = poseArray[baseIndex + 3];
+      fiducial.distToCamera = poseArray[baseIndex + 4];
+      fiducial.distToRobot = poseArray[baseIndex + 5];
+      fiducial.ambiguity = poseArray[baseIndex + 6];
+    }
+    out.rawFiducialCount = fiducialCount;
+    return true;
+  }
+
+  /**
+   * Decodes a rawfiducials array into caller-owned RawFiducials without allocating. Fiducials past
+   * out.length are dropped.
+   *
+   * @return the number of fiducials written to out
+   */
+  public static int decodeRawFiducials(double[] rawFiducialArray, RawFiducial[] out) {
+    int valsPerEntry = 7;
+    if (rawFiducialArray.length % valsPerEntry != 0) {
+      return 0;
+    }
+    int numFiducials = Math.min(rawFiducialArray.length / valsPerEntry, out.length);
+    for (int i = 0; i < numFiducials; i++) {
+      RawFiducial fiducial = out[i];
+      if (fiducial == null) {
+        fiducial = new RawFiducial();
+        out[i] = fiducial;
+      }
+      int baseIndex = i * valsPerEntry;
+      fiducial.id = (int) rawFiducialArray[baseIndex];
+      fiducial.txnc = rawFiducialArray[baseIndex + 1];
+      fiducial.tync = rawFiducialArray[baseIndex + 2];
+      fiducial.ta = rawFiducialArray[baseIndex + 3];
+      fiducial.distToCamera = rawFiducialArray[baseIndex + 4];
+      fiducial.distToRobot = rawFiducialArray[baseIndex + 5];
+      fiducial.ambiguity = rawFiducialArray[baseIndex + 6];
+    }
+    return numFiducials;
+  }
+
+  /**
+   * Decodes a rawdetections array into caller-owned RawDetections without allocating. Detections
+   * past out.length are dropped.
+   *
+   * @return the number of detections written to out
+   */
+  public static int decodeRawDetections(double[] rawDetectionArray, RawDetection[] out) {
+    int valsPerEntry = 12;
+    if (rawDetectionArray.length % valsPerEntry != 0) {
+      return 0;
+    }
+    int numDetections = Math.min(rawDetectionArray.length / valsPerEntry, out.length);
+    for (int i = 0; i < numDetections; i++) {
+      RawDetection detection = out[i];
+      if (detection == null) {
+        detection = new RawDetection();
+        out[i] = detection;
+      }
+      int baseIndex = i * valsPerEntry;
+      detection.classId = (int) rawDetectionArray[baseIndex];
+      detection.txnc = rawDetectionArray[baseIndex + 1];
+      detection.tync = rawDetectionArray[baseIndex + 2];
+      detection.ta = rawDetectionArray[baseIndex + 3];
+      detection.corner0_X = rawDetectionArray[baseIndex + 4];
+      detection.corner0_Y = rawDetectionArray[baseIndex + 5];
+      detection.corner1_X = rawDetectionArray[baseIndex + 6];
+      detection.corner1_Y = rawDetectionArray[baseIndex + 7];
+      detection.corner2_X = rawDetectionArray[baseIndex + 8];
+      detection.corner2_Y = rawDetectionArray[baseIndex + 9];
+      detection.corner3_X = rawDetectionArray[baseIndex + 10];
+      detection.corner3_Y = rawDetectionArray[baseIndex + 11];
+    }
+    return numDetections;
+  }
+
   public static void printPoseEstimate(PoseEstimate pose) {
     if (pose == null) {
       System.out.println("No PoseEstimate available.");
@@ -1243,7 +1558,11 @@ public class LimelightHelpers {
     return false;
   }
 
-  /** Parses Limelight's JSON results dump into a LimelightResults Object */
+  /**
+   * Parses Limelight's JSON results dump into a LimelightResults Object. This runs on the calling
+   * thread and takes several milliseconds on the RIO, use {@link RawResults} for anything that
+   * runs every loop.
+   */
   public static LimelightResults getLatestResults(String limelightName) {
 
     long start = System.nanoTime();
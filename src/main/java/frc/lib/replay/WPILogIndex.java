@@ -0,0 +1,212 @@
+package frc.lib.replay;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Lazy index over a memory-mapped WPILOG file. Records are scanned forward only as far as a lookup
+ * needs. Only the record headers are decoded along the way, except for control start records, which
+ * are added to the entry index, and the data records of the entry being looked up. Payloads of
+ * every other record are skipped without being read.
+ *
+ * Files over 2 GB can't be mapped into one buffer and are rejected. A record cut off at the end of
+ * the file is treated as the end of the log, since that is what a robot losing power leaves behind,
+ * but any other record that doesn't fit its file or payload throws an IOException.
+ *
+ * See https://github.com/wpilibsuite/allwpilib/blob/main/wpiutil/doc/datalog.adoc for the format.
+ */
+
+public final class WPILogIndex {
+  private static final byte[] MAGIC = "WPILOG".getBytes(StandardCharsets.US_ASCII);
+  private static final int CONTROL_ENTRY = 0;
+  private static final int CONTROL_START = 0;
+
+  /** An entry's start record, with the file offset of that record. */
+  public record Entry(int id, String name, String type, String metadata, long startOffset) {}
+
+  private final MappedByteBuffer buffer;
+  private final String extraHeader;
+  private final HashMap<String, Entry> entriesByName = new HashMap<>();
+  private final HashMap<Integer, Entry> entriesById = new HashMap<>();
+  private int scanPosition;
+
+  // Header of the record at the last position passed to readHeader()
+  private int recordEntry;
+  private int recordPayloadSize;
+  private int recordPayloadOffset;
+
+  private WPILogIndex(MappedByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.limit() < 12) {
+      throw new IOException("Not a WPILOG file");
+    }
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (buffer.get(i) != MAGIC[i]) {
+        throw new IOException("Not a WPILOG file");
+      }
+    }
+    int extraHeaderLength = buffer.getInt(8);
+    if (extraHeaderLength < 0 || extraHeaderLength > buffer.limit() - 12) {
+      throw new IOException("Malformed WPILOG header");
+    }
+    extraHeader = readString(12, extraHeaderLength);
+    scanPosition = 12 + extraHeaderLength;
+  }
+
+  /** Maps the log file into memory without reading any records yet. */
+  public static WPILogIndex open(String filename) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("WPILOG file is over 2 GB: " + filename);
+      }
+      return new WPILogIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  public String getExtraHeader() {
+    return extraHeader;
+  }
+
+  private String readString(int offset, int length) {
+    byte[] bytes = new byte[length];
+    buffer.get(offset, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private long readVarInt(int offset, int length) {
+    long value = 0;
+    for (int i = 0; i < length; i++) {
+      value |= (buffer.get(offset + i) & 0xFFL) << (8 * i);
+    }
+    return value;
+  }
+
+  /**
+   * Decodes the record header at position.
+   *
+   * @return false at the end of the log, including a last record that was cut off
+   * @throws IOException if the header doesn't describe a record that fits in an int sized file
+   */
+  private boolean readHeader(int position) throws IOException {
+    if (position >= buffer.limit()) {
+      return false;
+    }
+    int bitfield = buffer.get(position) & 0xFF;
+    int entryLength = (bitfield & 0x3) + 1;
+    int sizeLength = ((bitfield >> 2) & 0x3) + 1;
+    int timestampLength = ((bitfield >> 4) & 0x7) + 1;
+    int headerLength = 1 + entryLength + sizeLength + timestampLength;
+    if (headerLength > buffer.limit() - position) {
+      return false;
+    }
+    long entry = readVarInt(position + 1, entryLength);
+    long payloadSize = readVarInt(position + 1 + entryLength, sizeLength);
+    if (entry > Integer.MAX_VALUE || payloadSize > Integer.MAX_VALUE) {
+      throw new IOException("Malformed WPILOG record at offset " + position);
+    }
+    recordEntry = (int) entry;
+    recordPayloadSize = (int) payloadSize;
+    recordPayloadOffset = position + headerLength;
+    return recordPayloadSize <= buffer.limit() - recordPayloadOffset;
+  }
+
+  /** Checks that a length read from a start record stays inside the record's payload. */
+  private void checkInPayload(int offset, int length) throws IOException {
+    int payloadEnd = recordPayloadOffset + recordPayloadSize;
+    if (length < 0 || offset < recordPayloadOffset || length > payloadEnd - offset) {
+      throw new IOException("Malformed WPILOG start record at offset " + offset);
+    }
+  }
+
+  /**
+   * Scans forward one record, indexing it if it is a start record.
+   *
+   * @return the offset of the scanned record, or -1 at the end of the log
+   */
+  private int scanNext() throws IOException {
+    int position = scanPosition;
+    if (!readHeader(position)) {
+      return -1;
+    }
+    scanPosition = recordPayloadOffset + recordPayloadSize;
+
+    if (recordEntry == CONTROL_ENTRY
+        && recordPayloadSize >= 17
+        && buffer.get(recordPayloadOffset) == CONTROL_START) {
+      int offset = recordPayloadOffset + 1;
+      int id = buffer.getInt(offset);
+      int nameLength = buffer.getInt(offset + 4);
+      checkInPayload(offset + 8, nameLength);
+      String name = readString(offset + 8, nameLength);
+      offset += 8 + nameLength;
+      checkInPayload(offset, 4);
+      int typeLength = buffer.getInt(offset);
+      checkInPayload(offset + 4, typeLength);
+      String type = readString(offset + 4, typeLength);
+      offset += 4 + typeLength;
+      checkInPayload(offset, 4);
+      int metadataLength = buffer.getInt(offset);
+      checkInPayload(offset + 4, metadataLength);
+      String metadata = readString(offset + 4, metadataLength);
+      Entry entry = new Entry(id, name, type, metadata, position);
+      entriesByName.put(name, entry);
+      entriesById.put(id, entry);
+    }
+    return position;
+  }
+
+  /** Returns the start record of an entry, scanning forward until it is found. */
+  public Entry getEntry(String name) throws IOException {
+    Entry entry = entriesByName.get(name);
+    while (entry == null && scanNext() >= 0) {
+      entry = entriesByName.get(name);
+    }
+    return entry;
+  }
+
+  /**
+   * Returns the first string value logged to an entry, scanning forward only until it is found.
+   *
+   * @return the value, or null if the entry or a value for it is not in the log
+   */
+  public String readFirstString(String name) throws IOException {
+    Entry entry = getEntry(name);
+    if (entry == null) {
+      return null;
+    }
+    // Data for an entry always follows its start record
+    int position = (int) entry.startOffset();
+    while (readHeader(position)) {
+      if (recordEntry == entry.id()) {
+        return readString(recordPayloadOffset, recordPayloadSize);
+      }
+      int next = recordPayloadOffset + recordPayloadSize;
+      if (position == scanPosition) {
+        // Keep indexing start records while searching past the scanned part of the log
+        scanNext();
+      }
+      position = next;
+    }
+    return null;
+  }
+
+  /** Scans the rest of the log and returns every entry by name. */
+  public Map<String, Entry> indexAll() throws IOException {
+    while (scanNext() >= 0) {}
+    return Collections.unmodifiableMap(entriesByName);
+  }
+
+  /** Returns the start record of an entry by id, if it has been scanned. */
+  public Entry getEntry(int id) {
+    return entriesById.get(id);
+  }
+}
@@ -0,0 +1,141 @@
+package frc.lib.telemetry;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.RawPublisher;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.DoubleSupplier;
+
+/*
+ * Publishes a group of doubles for one subsystem as a single struct topic under
+ * "/Telemetry/<name>", which AdvantageScope and other NT4 clients decode using the published
+ * schema. The suppliers are only sampled on the loops the topic publishes on, and nothing is sent
+ * if every value is the same as the last time it was published.
+ *
+ * Fields added after publishing has started are picked up on the next publish, which republishes
+ * the topic under a new struct type since a sent schema can't change. Fields whose names clash,
+ * for example from two tabs with the same name, get a numbered suffix. Call
+ * TelemetryPublisher.publishAll() once per robot loop.
+ */
+
+public class TelemetryPublisher {
+  public static final double DASHBOARD_HZ = 10.0;
+  public static final double TUNING_HZ = 50.0;
+  private static final double LOOP_HZ = 50.0;
+
+  private static final ArrayList<TelemetryPublisher> publishers = new ArrayList<>();
+  private static final HashMap<String, TelemetryPublisher> byName = new HashMap<>();
+
+  private final String name;
+  private final int periodLoops;
+  private final ArrayList<String> fieldNames = new ArrayList<>();
+  private final ArrayList<DoubleSupplier> suppliers = new ArrayList<>();
+  private int loopsUntilPublish = 0;
+
+  private RawPublisher publisher = null;
+  private boolean schemaChanged = false;
+  private int schemaVersion = 0;
+  private double[] lastPublished;
+  private byte[] packed;
+  private ByteBuffer buffer;
+
+  public TelemetryPublisher(String name, double rateHz) {
+    this.name = name;
+    this.periodLoops = Math.max(1, (int) Math.round(LOOP_HZ / rateHz));
+    publishers.add(this);
+  }
+
+  /** Returns the shared dashboard rate publisher for a subsystem, creating it if needed. */
+  public static TelemetryPublisher forSubsystem(String name) {
+    return forSubsystem(name, DASHBOARD_HZ);
+  }
+
+  /**
+   * Returns the shared publisher for a subsystem at the given rate, creating it if needed. Rates
+   * other than DASHBOARD_HZ publish to their own topic, "/Telemetry/<name>/<rate>Hz".
+   */
+  public static TelemetryPublisher forSubsystem(String name, double rateHz) {
+    String key = rateHz == DASHBOARD_HZ ? name : name + "/" + Math.round(rateHz) + "Hz";
+    return byName.computeIfAbsent(key, (String topic) -> new TelemetryPublisher(topic, rateHz));
+  }
+
+  public TelemetryPublisher add(String fieldName, DoubleSupplier supplier) {
+    String sanitized = sanitize(fieldName);
+    String unique = sanitized;
+    for (int suffix = 2; fieldNames.contains(unique); suffix++) {
+      unique = sanitized + "_" + suffix;
+    }
+    fieldNames.add(unique);
+    suppliers.add(supplier);
+    schemaChanged = true;
+    return this;
+  }
+
+  private static String sanitize(String identifier) {
+    String sanitized = identifier.replaceAll("[^A-Za-z0-9_]", "_");
+    return Character.isDigit(sanitized.charAt(0)) ? "_" + sanitized : sanitized;
+  }
+
+  private void start() {
+    StringBuilder schema = new StringBuilder();
+    for (String fieldName : fieldNames) {
+      schema.append("double ").append(fieldName).append(';');
+    }
+    // Schemas are immutable once sent, so each new set of fields gets its own type name
+    String typeName = "struct:" + sanitize(name) + "Telemetry"
+        + (schemaVersion == 0 ? "" : "_" + schemaVersion);
+    schemaVersion++;
+    schemaChanged = false;
+    NetworkTableInstance nt = NetworkTableInstance.getDefault();
+    nt.addSchema(typeName, "structschema", schema.toString());
+    if (publisher != null) {
+      publisher.close();
+    }
+    publisher = nt.getRawTopic("/Telemetry/" + name)
+        .publish(typeName, PubSubOption.periodic(periodLoops / LOOP_HZ));
+
+    lastPublished = lastPublished == null
+        ? new double[suppliers.size()]
+        : Arrays.copyOf(lastPublished, suppliers.size());
+    packed = new byte[suppliers.size() * Double.BYTES];
+    buffer = ByteBuffer.wrap(packed).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private void publish() {
+    if (--loopsUntilPublish > 0 || suppliers.isEmpty()) {
+      return;
+    }
+    loopsUntilPublish = periodLoops;
+
+    boolean restarted = schemaChanged;
+    if (restarted) {
+      start();
+    }
+    boolean changed = restarted;
+    for (int i = 0; i < lastPublished.length; i++) {
+      double value = suppliers.get(i).getAsDouble();
+      if (Double.doubleToLongBits(value) != Double.doubleToLongBits(lastPublished[i])) {
+        lastPublished[i] = value;
+        changed = true;
+      }
+    }
+    if (!changed) {
+      return;
+    }
+    for (int i = 0; i < lastPublished.length; i++) {
+      buffer.putDouble(i * Double.BYTES, lastPublished[i]);
+    }
+    publisher.set(packed);
+  }
+
+  /** Publishes every topic that is due this loop. */
+  public static void publishAll() {
+    for (int i = 0; i < publishers.size(); i++) {
+      publishers.get(i).publish();
+    }
+  }
+}
@@ -4,7 +4,6 @@ import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.SimpleWidget;
-import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import java.util.function.Consumer;
 
 public class TunableBoolean {
@@ -73,21 +72,23 @@ public class TunableBoolean {
 
   public void addChangeListener(Consumer<Boolean> onChange) {
     onChange.accept(getValue());
-    CommandScheduler.getInstance()
-        .getDefaultButtonLoop()
-        .bind(
-            new Runnable() {
-              private boolean oldValue = getValue();
+    if (shuffleboard == null) {
+      return;
+    }
+    TunableChangeQueue.listen(
+        shuffleboard,
+        new Runnable() {
+          private boolean oldValue = getValue();
 
-              @Override
-              public void run() {
-                boolean newValue = getValue();
+          @Override
+          public void run() {
+            boolean newValue = getValue();
 
-                if (oldValue != newValue) {
-                  onChange.accept(newValue);
-                  oldValue = newValue;
-                }
-              }
-            });
+            if (oldValue != newValue) {
+              onChange.accept(newValue);
+              oldValue = newValue;
+            }
+          }
+        });
   }
 }
@@ -0,0 +1,64 @@
+package frc.lib.tunables;
+
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.Subscriber;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.EnumSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Tunables subscribe to NetworkTables value events instead of being polled every loop. The NT
+ * listener thread only marks a tunable as changed, and the changes are applied on the main thread
+ * in one drain per loop on the default button loop, so the cost scales with the number of changed
+ * tunables instead of the number of tunables.
+ */
+
+final class TunableChangeQueue {
+  private static final ConcurrentLinkedQueue<Change> pending = new ConcurrentLinkedQueue<>();
+
+  static {
+    CommandScheduler.getInstance().getDefaultButtonLoop().bind(TunableChangeQueue::drain);
+  }
+
+  static final class Change {
+    private final Runnable apply;
+    private final AtomicBoolean queued = new AtomicBoolean(false);
+
+    private Change(Runnable apply) {
+      this.apply = apply;
+    }
+
+    /** Queues this change to be applied on the next drain. Safe to call from any thread. */
+    void mark() {
+      if (queued.compareAndSet(false, true)) {
+        pending.add(this);
+      }
+    }
+  }
+
+  private TunableChangeQueue() {}
+
+  static Change create(Runnable apply) {
+    return new Change(apply);
+  }
+
+  /** Runs apply on the main thread after the subscribed value changes. */
+  static void listen(Subscriber subscriber, Runnable apply) {
+    Change change = create(apply);
+    NetworkTableInstance.getDefault()
+        .addListener(
+            subscriber,
+            EnumSet.of(NetworkTableEvent.Kind.kValueAll),
+            (NetworkTableEvent event) -> change.mark());
+  }
+
+  private static void drain() {
+    Change change;
+    while ((change = pending.poll()) != null) {
+      change.queued.set(false);
+      change.apply.run();
+    }
+  }
+}
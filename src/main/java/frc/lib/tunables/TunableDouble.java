@@ -3,7 +3,6 @@ package frc.lib.tunables;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.SimpleWidget;
-import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import frc.lib.functional.BooleanDoubleConsumer;
 import java.util.function.DoubleConsumer;
 
@@ -98,21 +97,23 @@ public class TunableDouble {
 
   public void addChangeListener(BooleanDoubleConsumer onChange) {
     onChange.accept(true, getValue());
-    CommandScheduler.getInstance()
-        .getDefaultButtonLoop()
-        .bind(
-            new Runnable() {
-              private double oldValue = getValue();
-
-              @Override
-              public void run() {
-                double newValue = getValue();
-
-                if (oldValue != newValue) {
-                  onChange.accept(false, newValue);
-                  oldValue = newValue;
-                }
-              }
-            });
+    if (shuffleboard == null) {
+      return;
+    }
+    TunableChangeQueue.listen(
+        shuffleboard,
+        new Runnable() {
+          private double oldValue = getValue();
+
+          @Override
+          public void run() {
+            double newValue = getValue();
+
+            if (oldValue != newValue) {
+              onChange.accept(false, newValue);
+              oldValue = newValue;
+            }
+          }
+        });
   }
 }
@@ -3,8 +3,8 @@ package frc.lib.tunables;
 import edu.wpi.first.wpilibj.shuffleboard.ComplexWidget;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
-import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import frc.lib.functional.BooleanObjectConsumer;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.function.Consumer;
 
@@ -12,6 +12,7 @@ public class TunableEnum<V extends Enum<V>> {
   private V defaultValue;
   private ComplexWidget shuffleboardWidget;
   private final SendableChooser<V> autoChooser;
+  private final ArrayList<TunableChangeQueue.Change> changes = new ArrayList<>();
 
   /**
    * Creates a TunableDouble. It can be enabled and disabled (Use defaultValue)
@@ -48,6 +49,12 @@ public class TunableEnum<V extends Enum<V>> {
       for (V value : myEnums) {
         autoChooser.addOption(value.name(), value);
       }
+      autoChooser.onChange(
+          (V value) -> {
+            for (TunableChangeQueue.Change change : changes) {
+              change.mark();
+            }
+          });
     } else {
       shuffleboardWidget = null;
       autoChooser = null;
@@ -95,9 +102,11 @@ public class TunableEnum<V extends Enum<V>> {
 
   public void addChangeListener(BooleanObjectConsumer<V> onChange) {
     onChange.accept(true, getValue());
-    CommandScheduler.getInstance()
-        .getDefaultButtonLoop()
-        .bind(
+    if (autoChooser == null) {
+      return;
+    }
+    changes.add(
+        TunableChangeQueue.create(
             new Runnable() {
               private V oldValue = getValue();
 
@@ -110,7 +119,7 @@ public class TunableEnum<V extends Enum<V>> {
                   oldValue = newValue;
                 }
               }
-            });
+            }));
   }
 
   public void addChangeListener(Consumer<V> onChange) {
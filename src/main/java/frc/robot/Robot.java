@@ -16,9 +16,16 @@ package frc.robot;
 import edu.wpi.first.wpilibj.Threads;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.lib.LoopTimer;
 import frc.lib.RobotContainer;
 import frc.lib.RobotInstance;
+import frc.lib.can.CanStream;
+import frc.lib.devices.StatusFramePlanner;
+import frc.lib.devices.StatusSignalRegistry;
+import frc.lib.eventLoops.EventLoops;
+import frc.lib.faults.Fault;
 import frc.lib.replay.WPILogReadMACAddress;
+import frc.lib.telemetry.TelemetryPublisher;
 import org.ironmaple.simulation.SimulatedArena;
 import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
@@ -37,8 +44,14 @@ import org.littletonrobotics.junction.wpilog.WPILOGWriter;
  * project.
  */
 public class Robot extends LoggedRobot {
+  // Raw CAN capture is for debugging bus problems, leave it off for matches. Spilling writes up to
+  // a few hundred KB/s to the USB drive on top of the regular logs.
+  private static final boolean CAPTURE_CAN = false;
+  private static final boolean SPILL_CAN_TO_USB = false;
+
   private Command autonomousCommand;
   private RobotContainer robotContainer;
+  private final LoopTimer schedulerTimer = new LoopTimer("CommandScheduler", 15.0);
 
   public Robot() {
     // Record metadata
@@ -136,6 +149,13 @@ public class Robot extends LoggedRobot {
   @Override
   public void robotInit() {
     robotContainer.robotInit();
+    StatusFramePlanner.apply();
+    Fault.setupLogging();
+
+    // Capture raw CAN traffic in the background, optionally spilling to the USB drive
+    if (CAPTURE_CAN && SimConstants.CURRENT_MODE == SimConstants.Mode.REAL) {
+      new CanStream(SPILL_CAN_TO_USB).start();
+    }
   }
 
   /** This function is called periodically during all modes. */
@@ -149,12 +169,21 @@ public class Robot extends LoggedRobot {
     // finished or interrupted commands, and running subsystem periodic() methods.
     // This must be called from the robot's periodic block in order for anything in
     // the Command-based framework to work.
+    StatusSignalRegistry.refreshAll();
+    schedulerTimer.start();
     CommandScheduler.getInstance().run();
+    schedulerTimer.stop();
 
     // Return to normal thread priority
     Threads.setCurrentThreadPriority(false, 10);
 
+    // Run the fault checks and other background polling that is due this loop
+    EventLoops.pollAll();
+    TelemetryPublisher.publishAll();
+
     robotContainer.robotPeriodic();
+
+    LoopTimer.publishAll();
   }
 
   /** This function is called once when the robot is disabled. */
@@ -50,6 +50,10 @@ import frc.robot.Robot25.subsystems.outtake.Outtake;
 import frc.robot.Robot25.subsystems.outtake.OuttakeIO;
 import frc.robot.Robot25.subsystems.outtake.OuttakeIOSim;
 import frc.robot.Robot25.subsystems.outtake.OuttakeIOTalonFX;
+import frc.robot.Robot25.subsystems.vision.Vision;
+import frc.robot.Robot25.subsystems.vision.VisionConstants;
+import frc.robot.Robot25.subsystems.vision.VisionIO;
+import frc.robot.Robot25.subsystems.vision.VisionIOLimelight;
 // import frc.robot.Robot25.subsystems.outtake.Outtake;
 // import frc.robot.Robot25.subsystems.outtake.OuttakeIO;
 // import frc.robot.Robot25.subsystems.outtake.OuttakeIOSim;
@@ -71,6 +75,7 @@ public class RobotContainer extends frc.lib.RobotContainer {
   private final Drive drive;
   private final Elevator elevator;
   private final Outtake outtake;
+  private final Vision vision;
 
   // Drive simulation
   private static final SwerveDriveSimulation driveSimulation =
@@ -113,6 +118,7 @@ public class RobotContainer extends frc.lib.RobotContainer {
 
         elevator = new Elevator(new ElevatorIO() {});
         outtake = new Outtake(new OuttakeIOTalonFX());
+        vision = new Vision(drive, new VisionIOLimelight(VisionConstants.camera0Name));
         break;
 
       case SIM:
@@ -125,6 +131,7 @@ public class RobotContainer extends frc.lib.RobotContainer {
 
         elevator = new Elevator(new ElevatorIOSim());
         outtake = new Outtake(new OuttakeIOSim());
+        vision = new Vision(drive, new VisionIO() {});
         break;
 
       default:
@@ -135,6 +142,7 @@ public class RobotContainer extends frc.lib.RobotContainer {
         elevator = new Elevator(new ElevatorIO() {});
 
         outtake = new Outtake(new OuttakeIO() {});
+        vision = new Vision(drive, new VisionIO() {});
         break;
     }
 
@@ -5,11 +5,15 @@ import static edu.wpi.first.units.Units.Volts;
 import edu.wpi.first.units.measure.Voltage;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.LoopTimer;
 import org.littletonrobotics.junction.Logger;
 
 public class Outtake extends SubsystemBase {
   private final OuttakeIO io;
   private final OuttakeIOInputsAutoLogged inputs = new OuttakeIOInputsAutoLogged();
+  private final LoopTimer periodicTimer = new LoopTimer("Outtake/Periodic", 2.0);
+  private final LoopTimer updateInputsTimer = new LoopTimer("Outtake/UpdateInputs", 1.0);
+  private final LoopTimer processInputsTimer = new LoopTimer("Outtake/ProcessInputs", 1.0);
 
   public Outtake(OuttakeIO io) {
     this.io = io;
@@ -17,8 +21,14 @@ public class Outtake extends SubsystemBase {
 
   @Override
   public void periodic() {
+    periodicTimer.start();
+    updateInputsTimer.start();
     io.updateInputs(inputs);
+    updateInputsTimer.stop();
+    processInputsTimer.start();
     Logger.processInputs("Outtake", inputs);
+    processInputsTimer.stop();
+    periodicTimer.stop();
   }
 
   public Command setOpenLoop(Voltage output) {
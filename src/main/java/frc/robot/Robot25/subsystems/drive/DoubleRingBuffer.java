@@ -0,0 +1,111 @@
+package frc.robot.Robot25.subsystems.drive;
+
+/**
+ * Fixed-capacity ring buffer of primitive doubles for handing samples from one producer thread to
+ * one consumer thread without boxing.
+ *
+ * <p>Only one thread may call {@link #offer(double)} and only one (other) thread may call the
+ * consumer methods. When the buffer is full, new samples are dropped and counted as overflows,
+ * which matches the behavior of {@link java.util.concurrent.ArrayBlockingQueue#offer(Object)}.
+ */
+public class DoubleRingBuffer {
+  private static final double[] EMPTY = new double[0];
+
+  private final double[] buffer;
+  private final int mask;
+
+  // Index of the next sample to read, only written by the consumer
+  private volatile long head;
+  // Index of the next sample to write, only written by the producer
+  private volatile long tail;
+  // Total number of samples dropped because the buffer was full, only written by the producer
+  private volatile long overflowCount = 0;
+
+  /** Creates a buffer that holds at least the given number of samples. */
+  public DoubleRingBuffer(int minCapacity) {
+    this(minCapacity, 0);
+  }
+
+  /**
+   * Creates a buffer whose first sample will have the given index. Lets several buffers that
+   * receive the same stream of samples share indices even if they were created at different times.
+   */
+  public DoubleRingBuffer(int minCapacity, long startIndex) {
+    if (minCapacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive, got " + minCapacity);
+    }
+    int capacity = Integer.highestOneBit(minCapacity);
+    if (capacity < minCapacity) {
+      capacity <<= 1;
+    }
+    buffer = new double[capacity];
+    mask = capacity - 1;
+    head = startIndex;
+    tail = startIndex;
+  }
+
+  /**
+   * Adds a sample to the buffer. Producer only.
+   *
+   * @return false if the buffer was full and the sample was dropped
+   */
+  public boolean offer(double value) {
+    long currentTail = tail;
+    if (currentTail - head >= buffer.length) {
+      overflowCount = overflowCount + 1;
+      return false;
+    }
+    buffer[(int) currentTail & mask] = value;
+    tail = currentTail + 1; // Publishes the sample to the consumer
+    return true;
+  }
+
+  /** Returns the number of samples waiting to be read. */
+  public int size() {
+    return (int) (tail - head);
+  }
+
+  /** Returns true if the next sample offered would be dropped. */
+  public boolean isFull() {
+    return tail - head >= buffer.length;
+  }
+
+  /** Returns the maximum number of samples the buffer can hold. */
+  public int capacity() {
+    return buffer.length;
+  }
+
+  /** Removes all waiting samples and returns them oldest first. Consumer only. */
+  public double[] drain() {
+    return drainUntil(Long.MAX_VALUE, 1.0);
+  }
+
+  /**
+   * Removes waiting samples with an index below endIndex and returns them oldest first, multiplied
+   * by scale. Samples published after endIndex are left for the next call. Consumer only.
+   *
+   * <p>A new array is returned every call. The result is usually handed to AdvantageKit as an
+   * input, which keeps it for the log writer and compares it against the next cycle's value, so it
+   * must never be written to again.
+   *
+   * @param scale factor applied to each sample while copying, e.g. for unit conversion
+   */
+  public double[] drainUntil(long endIndex, double scale) {
+    long currentHead = head;
+    int count = (int) Math.max(0, Math.min(tail, endIndex) - currentHead);
+    if (count == 0) {
+      return EMPTY;
+    }
+    double[] values = new double[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = buffer[(int) (currentHead + i) & mask] * scale;
+    }
+    head = currentHead + count; // Hands the slots back to the producer
+    return values;
+  }
+
+  /** Returns the total number of samples dropped since the buffer was created. */
+  public long getOverflowCount() {
+    return overflowCount;
+  }
+}
@@ -25,7 +25,7 @@ import com.pathplanner.lib.util.PathPlannerLogging;
 import edu.wpi.first.hal.FRCNetComm.tInstances;
 import edu.wpi.first.hal.FRCNetComm.tResourceType;
 import edu.wpi.first.hal.HAL;
-import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
@@ -34,6 +34,8 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.Alert.AlertType;
@@ -43,20 +45,21 @@ import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import frc.lib.LoopTimer;
 import frc.robot.Robot25.subsystems.gyro.GyroIO;
 import frc.robot.Robot25.subsystems.gyro.GyroIOInputsAutoLogged;
+import frc.robot.Robot25.subsystems.vision.Vision;
 import frc.robot.Robot25.util.LocalADStarAK;
 import frc.robot.SimConstants;
 import frc.robot.SimConstants.Mode;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Optional;
 import org.ironmaple.simulation.drivesims.COTS;
 import org.ironmaple.simulation.drivesims.configs.DriveTrainSimulationConfig;
 import org.ironmaple.simulation.drivesims.configs.SwerveModuleSimulationConfig;
 import org.littletonrobotics.junction.AutoLogOutput;
 import org.littletonrobotics.junction.Logger;
 
-public class Drive extends SubsystemBase /* implements Vision.VisionConsumer */ {
+public class Drive extends SubsystemBase implements Vision.VisionConsumer {
 
   // Configure path planner
   private static final RobotConfig PP_CONFIG =
@@ -80,21 +83,31 @@ public class Drive extends SubsystemBase /* implements Vision.VisionConsumer */
               KilogramSquareMeters.of(DriveConstants.FrontLeft.SteerInertia),
               DriveConstants.WHEEL_COF));
 
-  static final Lock odometryLock = new ReentrantLock();
   private final GyroIO gyroIO;
   private final GyroIOInputsAutoLogged gyroInputs = new GyroIOInputsAutoLogged();
   private final Module[] modules = new Module[4]; // FL, FR, BL, BR
   private final SysIdRoutine sysId;
   private final Alert gyroDisconnectedAlert =
       new Alert("Disconnected gyro, using kinematics as fallback.", AlertType.kError);
+  private final LoopTimer periodicTimer = new LoopTimer("Drive/Periodic", 5.0);
+  private final LoopTimer gyroUpdateInputsTimer = new LoopTimer("Drive/Gyro/UpdateInputs", 1.0);
+  private final LoopTimer gyroProcessInputsTimer =
+      new LoopTimer("Drive/Gyro/ProcessInputs", 1.0);
 
   private SwerveDriveKinematics kinematics = new SwerveDriveKinematics(getModuleTranslations());
   private Rotation2d rawGyroRotation = new Rotation2d();
   private SwerveModulePosition[] lastModulePositions = // For delta tracking
       new SwerveModulePosition[] {new SwerveModulePosition(), new SwerveModulePosition(),
           new SwerveModulePosition(), new SwerveModulePosition()};
-  private SwerveDrivePoseEstimator poseEstimator =
-      new SwerveDrivePoseEstimator(kinematics, rawGyroRotation, lastModulePositions, Pose2d.kZero);
+  // Reused every cycle to avoid allocating per odometry sample
+  private final SwerveModulePosition[] moduleDeltas =
+      new SwerveModulePosition[] {new SwerveModulePosition(), new SwerveModulePosition(),
+          new SwerveModulePosition(), new SwerveModulePosition()};
+  private final OdometryFrame odometryFrame = new OdometryFrame(4, 20);
+  private long unmatchedSampleCount = 0;
+  private PoseHistoryEstimator poseEstimator = new PoseHistoryEstimator(kinematics,
+      rawGyroRotation, lastModulePositions, Pose2d.kZero, DriveConstants.ODOMETRY_FREQUENCY);
+  private int poseResetCount = 0;
 
   private boolean coastModeOn = false;
   private boolean snapToRotationEnabled = false;
@@ -137,13 +150,23 @@ public class Drive extends SubsystemBase /* implements Vision.VisionConsumer */
 
   @Override
   public void periodic() {
-    odometryLock.lock(); // Prevents odometry updates while reading data
+    periodicTimer.start();
+
+    // Every IO drains its odometry queues up to the same sample
+    PhoenixOdometryThread.getInstance().latchSampleCount();
+    gyroUpdateInputsTimer.start();
     gyroIO.updateInputs(gyroInputs);
+    gyroUpdateInputsTimer.stop();
+    gyroProcessInputsTimer.start();
     Logger.processInputs("Drive/Gyro", gyroInputs);
+    gyroProcessInputsTimer.stop();
     for (var module : modules) {
       module.periodic();
     }
-    odometryLock.unlock();
+
+    // Samples dropped because the main loop fell behind the odometry thread
+    Logger.recordOutput("Odometry/DroppedSamples",
+        PhoenixOdometryThread.getInstance().getOverflowCount());
 
     // Log velocity, position, and voltage for characterization
     logDriveCharacterization();
@@ -156,26 +179,32 @@ public class Drive extends SubsystemBase /* implements Vision.VisionConsumer */
     }
 
     // Update odometry
-    double[] sampleTimestamps = modules[0].getOdometryTimestamps(); // All signals are sampled
-                                                                    // together
-    int sampleCount = sampleTimestamps.length;
-    for (int i = 0; i < sampleCount; i++) {
-      // Read wheel positions and deltas from each module
-      SwerveModulePosition[] modulePositions = new SwerveModulePosition[4];
-      SwerveModulePosition[] moduleDeltas = new SwerveModulePosition[4];
+    updateOdometryFrame();
+    for (int i = 0; i < odometryFrame.getSampleCount(); i++) {
+      // Read wheel positions and deltas from each module. The pose estimator copies the
+      // positions it is given, so the same objects are updated in place every sample. Rotations
+      // are immutable, so one is only created when the angle actually changed.
       for (int moduleIndex = 0; moduleIndex < 4; moduleIndex++) {
-        modulePositions[moduleIndex] = modules[moduleIndex].getOdometryPositions()[i];
-        moduleDeltas[moduleIndex] = new SwerveModulePosition(
-            modulePositions[moduleIndex].distanceMeters
-                - lastModulePositions[moduleIndex].distanceMeters,
-            modulePositions[moduleIndex].angle);
-        lastModulePositions[moduleIndex] = modulePositions[moduleIndex];
+        double positionMeters = odometryFrame.getDrivePositionMeters(moduleIndex, i);
+        double turnRad = odometryFrame.getTurnPositionRad(moduleIndex, i);
+        Rotation2d angle = lastModulePositions[moduleIndex].angle;
+        if (angle.getRadians() != turnRad) {
+          angle = new Rotation2d(turnRad);
+        }
+        moduleDeltas[moduleIndex].distanceMeters =
+            positionMeters - lastModulePositions[moduleIndex].distanceMeters;
+        moduleDeltas[moduleIndex].angle = angle;
+        lastModulePositions[moduleIndex].distanceMeters = positionMeters;
+        lastModulePositions[moduleIndex].angle = angle;
       }
 
       // Update yaw using real gyro or kinematics estimation
-      if (gyroInputs.connected) {
+      if (odometryFrame.hasYaw()) {
         // Use the real gyro angle
-        rawGyroRotation = gyroInputs.odometryYawPositions[i];
+        double yawRad = odometryFrame.getYawPositionRad(i);
+        if (rawGyroRotation.getRadians() != yawRad) {
+          rawGyroRotation = new Rotation2d(yawRad);
+        }
       } else {
         // Estimate the angle delta from the kinematics and module deltas
         Twist2d twist = kinematics.toTwist2d(moduleDeltas);
@@ -183,11 +212,48 @@ public class Drive extends SubsystemBase /* implements Vision.VisionConsumer */
       }
 
       // Apply update
-      poseEstimator.updateWithTime(sampleTimestamps[i], rawGyroRotation, modulePositions);
+      poseEstimator.updateWithTime(
+          odometryFrame.getTimestamp(i), rawGyroRotation, lastModulePositions);
     }
 
     // Update gyro alert
     gyroDisconnectedAlert.set(!gyroInputs.connected && SimConstants.CURRENT_MODE != Mode.SIM);
+
+    periodicTimer.stop();
+  }
+
+  /**
+   * Collects this cycle's module and gyro samples into the odometry frame. All signals are sampled
+   * together, but only samples received by every source are used so they share timestamps. The
+   * rest can't be matched to the other sources and are dropped, and counted under
+   * "Odometry/UnmatchedSamples".
+   */
+  private void updateOdometryFrame() {
+    boolean useGyro = gyroInputs.connected;
+    int sampleCount = Integer.MAX_VALUE;
+    int maxSampleCount = 0;
+    for (var module : modules) {
+      sampleCount = Math.min(sampleCount, module.getOdometrySampleCount());
+      maxSampleCount = Math.max(maxSampleCount, module.getOdometrySampleCount());
+    }
+    if (useGyro) {
+      sampleCount = Math.min(sampleCount, gyroInputs.odometryYawPositions.length);
+      maxSampleCount = Math.max(maxSampleCount, gyroInputs.odometryYawPositions.length);
+    }
+    unmatchedSampleCount += maxSampleCount - sampleCount;
+    Logger.recordOutput("Odometry/UnmatchedSamples", unmatchedSampleCount);
+
+    odometryFrame.reset(sampleCount, useGyro);
+    double[] sampleTimestamps = modules[0].getOdometryTimestamps();
+    for (int i = 0; i < sampleCount; i++) {
+      odometryFrame.setTimestamp(i, sampleTimestamps[i]);
+      if (useGyro) {
+        odometryFrame.setYaw(i, gyroInputs.odometryYawPositions[i]);
+      }
+    }
+    for (var module : modules) {
+      module.writeOdometrySamples(odometryFrame, sampleCount);
+    }
   }
 
   /**
@@ -330,17 +396,30 @@ public class Drive extends SubsystemBase /* implements Vision.VisionConsumer */
   /** Resets the current odometry pose. */
   public void setPose(Pose2d pose) {
     poseEstimator.resetPosition(rawGyroRotation, getModulePositions(), pose);
+    poseResetCount++;
   }
 
-  // /** Adds a new timestamped vision measurement. */
-  // @Override
-  // public void accept(
-  // Pose2d visionRobotPoseMeters,
-  // double timestampSeconds,
-  // Matrix<N3, N1> visionMeasurementStdDevs) {
-  // poseEstimator.addVisionMeasurement(
-  // visionRobotPoseMeters, timestampSeconds, visionMeasurementStdDevs);
-  // }
+  /** Adds a new timestamped vision measurement. */
+  @Override
+  public void accept(
+      Pose2d visionRobotPoseMeters,
+      double timestampSeconds,
+      Matrix<N3, N1> visionMeasurementStdDevs) {
+    poseEstimator.addVisionMeasurement(
+        visionRobotPoseMeters, timestampSeconds, visionMeasurementStdDevs);
+  }
+
+  /** Returns the estimated pose at a recent timestamp, for checking vision against. */
+  @Override
+  public Optional<Pose2d> getPoseAt(double timestampSeconds) {
+    return poseEstimator.sampleAt(timestampSeconds);
+  }
+
+  /** Returns a count that changes every time setPose is called. */
+  @Override
+  public int getPoseResetCount() {
+    return poseResetCount;
+  }
 
   /** Returns the maximum linear speed in meters per sec. */
   public double getMaxLinearSpeedMetersPerSec() {
@@ -29,6 +29,7 @@ import edu.wpi.first.units.measure.LinearVelocity;
 import edu.wpi.first.units.measure.Voltage;
 import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.Alert.AlertType;
+import frc.lib.LoopTimer;
 import org.littletonrobotics.junction.Logger;
 
 public class Module {
@@ -42,7 +43,8 @@ public class Module {
   private final Alert driveDisconnectedAlert;
   private final Alert turnDisconnectedAlert;
   private final Alert turnEncoderDisconnectedAlert;
-  private SwerveModulePosition[] odometryPositions = new SwerveModulePosition[] {};
+  private final LoopTimer updateInputsTimer;
+  private final LoopTimer processInputsTimer;
 
   public Module(
       ModuleIO io,
@@ -63,20 +65,17 @@ public class Module {
         new Alert(
             "Disconnected turn encoder on module " + Integer.toString(index) + ".",
             AlertType.kError);
+    updateInputsTimer = new LoopTimer("Drive/Module" + index + "/UpdateInputs", 1.0);
+    processInputsTimer = new LoopTimer("Drive/Module" + index + "/ProcessInputs", 1.0);
   }
 
   public void periodic() {
+    updateInputsTimer.start();
     io.updateInputs(inputs);
+    updateInputsTimer.stop();
+    processInputsTimer.start();
     Logger.processInputs("Drive/Module" + Integer.toString(index), inputs);
-
-    // Calculate positions for odometry
-    int sampleCount = inputs.odometryTimestamps.length; // All signals are sampled together
-    odometryPositions = new SwerveModulePosition[sampleCount];
-    for (int i = 0; i < sampleCount; i++) {
-      double positionMeters = inputs.odometryDrivePositionsRad[i] * constants.WheelRadius;
-      Rotation2d angle = inputs.odometryTurnPositions[i];
-      odometryPositions[i] = new SwerveModulePosition(positionMeters, angle);
-    }
+    processInputsTimer.stop();
 
     // Update alerts
     driveDisconnectedAlert.set(!inputs.driveConnected);
@@ -136,9 +135,22 @@ public class Module {
     return new SwerveModuleState(getVelocityMetersPerSec(), getAngle());
   }
 
-  /** Returns the module positions received this cycle. */
-  public SwerveModulePosition[] getOdometryPositions() {
-    return odometryPositions;
+  /** Returns the number of complete odometry samples received this cycle. */
+  public int getOdometrySampleCount() {
+    return Math.min(
+        inputs.odometryTimestamps.length,
+        Math.min(inputs.odometryDrivePositionsRad.length, inputs.odometryTurnPositions.length));
+  }
+
+  /** Copies the first sampleCount odometry samples received this cycle into the frame. */
+  public void writeOdometrySamples(OdometryFrame frame, int sampleCount) {
+    for (int i = 0; i < sampleCount; i++) {
+      frame.setModule(
+          index,
+          i,
+          inputs.odometryDrivePositionsRad[i] * constants.WheelRadius,
+          inputs.odometryTurnPositions[i]);
+    }
   }
 
   /** Returns the timestamps of the samples received this cycle. */
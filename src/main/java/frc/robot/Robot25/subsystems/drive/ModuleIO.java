@@ -35,7 +35,9 @@ public interface ModuleIO {
 
     public double[] odometryTimestamps = new double[] {};
     public double[] odometryDrivePositionsRad = new double[] {};
-    public Rotation2d[] odometryTurnPositions = new Rotation2d[] {};
+    // Radians. Named as before so the log key doesn't change, but logs from when this was a
+    // Rotation2d[] replay with no turn samples.
+    public double[] odometryTurnPositions = new double[] {};
   }
 
   /** Updates the set of loggable inputs. */
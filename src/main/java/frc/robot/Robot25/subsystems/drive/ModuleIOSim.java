@@ -98,7 +98,9 @@ public class ModuleIOSim implements ModuleIO {
     inputs.odometryDrivePositionsRad =
         Arrays.stream(moduleSimulation.getCachedDriveWheelFinalPositions())
             .mapToDouble(angle -> angle.in(Radians)).toArray();
-    inputs.odometryTurnPositions = moduleSimulation.getCachedSteerAbsolutePositions();
+    inputs.odometryTurnPositions =
+        Arrays.stream(moduleSimulation.getCachedSteerAbsolutePositions())
+            .mapToDouble(Rotation2d::getRadians).toArray();
   }
 
   @Override
@@ -16,7 +16,6 @@ package frc.robot.Robot25.subsystems.drive;
 import static edu.wpi.first.units.Units.Rotations;
 import static frc.robot.Robot25.util.PhoenixUtil.*;
 
-import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.CANcoderConfiguration;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
@@ -40,7 +39,8 @@ import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.Voltage;
 import frc.lib.devices.PWMEncoder;
-import java.util.Queue;
+import frc.lib.devices.StatusFramePlanner;
+import frc.lib.devices.StatusSignalRegistry;
 import java.util.function.Supplier;
 import org.littletonrobotics.junction.Logger;
 
@@ -52,6 +52,8 @@ import org.littletonrobotics.junction.Logger;
  * Device configuration and other behaviors not exposed by DriveConstants can be customized here.
  */
 public class ModuleIOTalonFX implements ModuleIO {
+  private static final double ROTATIONS_TO_RADIANS = Units.rotationsToRadians(1.0);
+
   private final SwerveModuleConstants<TalonFXConfiguration, TalonFXConfiguration, CANcoderConfiguration> constants;
 
   // Hardware objects
@@ -73,11 +75,11 @@ public class ModuleIOTalonFX implements ModuleIO {
       new VelocityTorqueCurrentFOC(0.0);
 
   // Timestamp inputs from Phoenix thread
-  private final Queue<Double> timestampQueue;
+  private final DoubleRingBuffer timestampQueue;
 
   // Inputs from drive motor
   private final StatusSignal<Angle> drivePosition;
-  private final Queue<Double> drivePositionQueue;
+  private final DoubleRingBuffer drivePositionQueue;
   private final StatusSignal<AngularVelocity> driveVelocity;
   private final StatusSignal<Voltage> driveAppliedVolts;
   private final StatusSignal<Current> driveCurrent;
@@ -85,12 +87,15 @@ public class ModuleIOTalonFX implements ModuleIO {
   // Inputs from turn motor
   private final Supplier<Angle> turnAbsolutePosition;
   private final StatusSignal<Angle> turnPosition;
-  private final Queue<Double> turnPositionQueue;
+  private final DoubleRingBuffer turnPositionQueue;
   private final StatusSignal<AngularVelocity> turnVelocity;
   private final StatusSignal<Voltage> turnAppliedVolts;
   private final StatusSignal<Current> turnCurrent;
 
   // Connection debouncers
+  private final StatusSignalRegistry.Group driveSignals;
+  private final StatusSignalRegistry.Group turnSignals;
+
   private final Debouncer driveConnectedDebounce = new Debouncer(0.5);
   private final Debouncer turnConnectedDebounce = new Debouncer(0.5);
 
@@ -151,8 +156,9 @@ public class ModuleIOTalonFX implements ModuleIO {
     // Create timestamp queue
     timestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
 
-    // Create drive status signals
-    drivePosition = driveTalon.getPosition();
+    // Create drive status signals. The odometry thread refreshes the cached position signals, so
+    // the main loop reads its own clones to keep the two threads from refreshing the same objects.
+    drivePosition = driveTalon.getPosition().clone();
     drivePositionQueue =
         PhoenixOdometryThread.getInstance().registerSignal(driveTalon.getPosition());
     driveVelocity = driveTalon.getVelocity();
@@ -161,41 +167,45 @@ public class ModuleIOTalonFX implements ModuleIO {
 
     // Create turn status signals
     turnAbsolutePosition = () -> customEncoder.getPosition(); // cancoder.getPosition();
-    turnPosition = turnTalon.getPosition();
+    turnPosition = turnTalon.getPosition().clone();
     turnPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(turnTalon.getPosition());
     turnVelocity = turnTalon.getVelocity();
     turnAppliedVolts = turnTalon.getMotorVoltage();
     turnCurrent = turnTalon.getStatorCurrent();
 
-    // Configure periodic frames
-    BaseStatusSignal.setUpdateFrequencyForAll(DriveConstants.ODOMETRY_FREQUENCY, drivePosition,
-        turnPosition);
-    BaseStatusSignal.setUpdateFrequencyForAll(50.0, driveVelocity, driveAppliedVolts, driveCurrent,
+    // Configure periodic frames. Odometry runs at a fixed rate, the rest can be slowed down by the
+    // planner if the bus is over budget.
+    String busName = DriveConstants.DrivetrainConstants.CANBusName;
+    StatusFramePlanner.declare(busName, DriveConstants.ODOMETRY_FREQUENCY,
+        DriveConstants.ODOMETRY_FREQUENCY, drivePosition, turnPosition);
+    StatusFramePlanner.declare(busName, 25.0, 50.0, driveVelocity, turnVelocity);
+    StatusFramePlanner.declare(busName, 10.0, 50.0, driveAppliedVolts, driveCurrent,
         // turnAbsolutePosition,
-        turnVelocity, turnAppliedVolts, turnCurrent);
+        turnAppliedVolts, turnCurrent);
     ParentDevice.optimizeBusUtilizationForAll(driveTalon, turnTalon);
+
+    // Refreshed once per loop along with every other signal on the bus
+    driveSignals = StatusSignalRegistry.register(
+        busName, drivePosition, driveVelocity, driveAppliedVolts, driveCurrent);
+    turnSignals = StatusSignalRegistry.register(
+        busName, turnPosition, turnVelocity, turnAppliedVolts, turnCurrent);
   }
 
   @Override
   public void updateInputs(ModuleIOInputs inputs) {
-    // Refresh all signals
-    var driveStatus =
-        BaseStatusSignal.refreshAll(drivePosition, driveVelocity, driveAppliedVolts, driveCurrent);
-    var turnStatus =
-        BaseStatusSignal.refreshAll(turnPosition, turnVelocity, turnAppliedVolts, turnCurrent);
     // var turnEncoderStatus = BaseStatusSignal.refreshAll(turnAbsolutePosition);
 
     Logger.recordOutput("Module" + constants.EncoderId + "AbsEncoder", customEncoder.getPosition());
 
     // Update drive inputs
-    inputs.driveConnected = driveConnectedDebounce.calculate(driveStatus.isOK());
+    inputs.driveConnected = driveConnectedDebounce.calculate(driveSignals.isOK());
     inputs.drivePositionRad = Units.rotationsToRadians(drivePosition.getValueAsDouble());
     inputs.driveVelocityRadPerSec = Units.rotationsToRadians(driveVelocity.getValueAsDouble());
     inputs.driveAppliedVolts = driveAppliedVolts.getValueAsDouble();
     inputs.driveCurrentAmps = driveCurrent.getValueAsDouble();
 
     // Update turn inputs
-    inputs.turnConnected = turnConnectedDebounce.calculate(turnStatus.isOK());
+    inputs.turnConnected = turnConnectedDebounce.calculate(turnSignals.isOK());
     inputs.turnEncoderConnected = true;
     // turnEncoderConnectedDebounce.calculate(turnEncoderStatus.isOK());
     inputs.turnAbsolutePosition = new Rotation2d(turnAbsolutePosition.get());
@@ -205,15 +215,12 @@ public class ModuleIOTalonFX implements ModuleIO {
     inputs.turnCurrentAmps = turnCurrent.getValueAsDouble();
 
     // Update odometry inputs
-    inputs.odometryTimestamps =
-        timestampQueue.stream().mapToDouble((Double value) -> value).toArray();
-    inputs.odometryDrivePositionsRad = drivePositionQueue.stream()
-        .mapToDouble((Double value) -> Units.rotationsToRadians(value)).toArray();
-    inputs.odometryTurnPositions = turnPositionQueue.stream()
-        .map((Double value) -> Rotation2d.fromRotations(value)).toArray(Rotation2d[]::new);
-    timestampQueue.clear();
-    drivePositionQueue.clear();
-    turnPositionQueue.clear();
+    long sampleLimit = PhoenixOdometryThread.getInstance().getLatchedSampleCount();
+    inputs.odometryTimestamps = timestampQueue.drainUntil(sampleLimit, 1.0);
+    inputs.odometryDrivePositionsRad =
+        drivePositionQueue.drainUntil(sampleLimit, ROTATIONS_TO_RADIANS);
+    inputs.odometryTurnPositions =
+        turnPositionQueue.drainUntil(sampleLimit, ROTATIONS_TO_RADIANS);
   }
 
   @Override
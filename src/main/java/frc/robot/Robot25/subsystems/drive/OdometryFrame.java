@@ -0,0 +1,91 @@
+package frc.robot.Robot25.subsystems.drive;
+
+/**
+ * Batch of high-frequency odometry samples stored as parallel primitive arrays. Sample {@code i} of
+ * every array was captured at {@code getTimestamp(i)}, so module and gyro readings can be consumed
+ * together in a single pass.
+ *
+ * <p>Arrays are only reallocated when a batch is larger than any previous batch, so reusing one
+ * frame across loop cycles does not allocate in steady state.
+ */
+public class OdometryFrame {
+  private final int moduleCount;
+  private int sampleCount = 0;
+  private boolean hasYaw = false;
+
+  private double[] timestamps;
+  private final double[][] drivePositionsMeters;
+  private final double[][] turnPositionsRad;
+  private double[] yawPositionsRad;
+
+  public OdometryFrame(int moduleCount, int initialCapacity) {
+    this.moduleCount = moduleCount;
+    timestamps = new double[initialCapacity];
+    drivePositionsMeters = new double[moduleCount][initialCapacity];
+    turnPositionsRad = new double[moduleCount][initialCapacity];
+    yawPositionsRad = new double[initialCapacity];
+  }
+
+  /**
+   * Clears the frame and prepares it to hold the given number of samples.
+   *
+   * @param hasYaw whether gyro samples will be written for this batch
+   */
+  public void reset(int sampleCount, boolean hasYaw) {
+    if (sampleCount > timestamps.length) {
+      int capacity = Math.max(sampleCount, timestamps.length * 2);
+      timestamps = new double[capacity];
+      for (int m = 0; m < moduleCount; m++) {
+        drivePositionsMeters[m] = new double[capacity];
+        turnPositionsRad[m] = new double[capacity];
+      }
+      yawPositionsRad = new double[capacity];
+    }
+    this.sampleCount = sampleCount;
+    this.hasYaw = hasYaw;
+  }
+
+  public void setTimestamp(int sample, double timestampSeconds) {
+    timestamps[sample] = timestampSeconds;
+  }
+
+  public void setModule(
+      int module, int sample, double drivePositionMeters, double turnPositionRad) {
+    drivePositionsMeters[module][sample] = drivePositionMeters;
+    turnPositionsRad[module][sample] = turnPositionRad;
+  }
+
+  public void setYaw(int sample, double yawPositionRad) {
+    yawPositionsRad[sample] = yawPositionRad;
+  }
+
+  /** Returns the number of valid samples in this frame. */
+  public int getSampleCount() {
+    return sampleCount;
+  }
+
+  public int getModuleCount() {
+    return moduleCount;
+  }
+
+  /** Returns true if this frame contains gyro samples. */
+  public boolean hasYaw() {
+    return hasYaw;
+  }
+
+  public double getTimestamp(int sample) {
+    return timestamps[sample];
+  }
+
+  public double getDrivePositionMeters(int module, int sample) {
+    return drivePositionsMeters[module][sample];
+  }
+
+  public double getTurnPositionRad(int module, int sample) {
+    return turnPositionsRad[module][sample];
+  }
+
+  public double getYawPositionRad(int sample) {
+    return yawPositionsRad[sample];
+  }
+}
@@ -21,33 +21,50 @@ import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.RobotController;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.DoubleSupplier;
 
 /**
- * Provides an interface for asynchronously reading high-frequency measurements to a set of queues.
+ * Provides an interface for asynchronously reading high-frequency measurements to a set of
+ * primitive ring buffers.
  *
  * <p>This version is intended for Phoenix 6 devices on both the RIO and CANivore buses. When using
  * a CANivore, the thread uses the "waitForAll" blocking method to enable more consistent sampling.
  * This also allows Phoenix Pro users to benefit from lower latency between devices using CANivore
  * time synchronization.
+ *
+ * <p>The thread and the main loop never wait on each other. Each sample is written to every queue
+ * and then published by incrementing a sample counter. Once per cycle the main loop latches that
+ * counter with {@link #latchSampleCount()}, and consumers drain their queues up to the latched
+ * value, so every queue gives up the same samples even if a new one is published mid-cycle.
  */
 public class PhoenixOdometryThread extends Thread {
   private final Lock signalsLock =
       new ReentrantLock(); // Prevents conflicts when registering signals
   private BaseStatusSignal[] phoenixSignals = new BaseStatusSignal[0];
   private final List<DoubleSupplier> genericSignals = new ArrayList<>();
-  private final List<Queue<Double>> phoenixQueues = new ArrayList<>();
-  private final List<Queue<Double>> genericQueues = new ArrayList<>();
-  private final List<Queue<Double>> timestampQueues = new ArrayList<>();
+  private final List<DoubleRingBuffer> phoenixQueues = new ArrayList<>();
+  private final List<DoubleRingBuffer> genericQueues = new ArrayList<>();
+  private final List<DoubleRingBuffer> timestampQueues = new ArrayList<>();
+  // Latest sample of each signal, only used by the odometry thread
+  private double[] phoenixSamples = new double[0];
+  private double[] genericSamples = new double[0];
+
+  // Number of samples written to every queue, only written by the odometry thread
+  private volatile long publishedSampleCount = 0;
+  // Number of samples skipped because a queue was full, only written by the odometry thread
+  private volatile long droppedSampleCount = 0;
+  // Value of publishedSampleCount at the start of the current cycle, only used by the main loop
+  private long latchedSampleCount = 0;
 
   private static boolean isCANFD =
       new CANBus(DriveConstants.DrivetrainConstants.CANBusName).isNetworkFD();
   private static PhoenixOdometryThread instance = null;
 
+  // Enough for several main loop cycles at the odometry frequency
+  private static final int QUEUE_CAPACITY = 20;
+
   public static PhoenixOdometryThread getInstance() {
     if (instance == null) {
       instance = new PhoenixOdometryThread();
@@ -68,48 +85,62 @@ public class PhoenixOdometryThread extends Thread {
   }
 
   /** Registers a Phoenix signal to be read from the thread. */
-  public Queue<Double> registerSignal(StatusSignal<Angle> signal) {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
+  public DoubleRingBuffer registerSignal(StatusSignal<Angle> signal) {
     signalsLock.lock();
-    Drive.odometryLock.lock();
     try {
+      DoubleRingBuffer queue = new DoubleRingBuffer(QUEUE_CAPACITY, publishedSampleCount);
       BaseStatusSignal[] newSignals = new BaseStatusSignal[phoenixSignals.length + 1];
       System.arraycopy(phoenixSignals, 0, newSignals, 0, phoenixSignals.length);
       newSignals[phoenixSignals.length] = signal;
       phoenixSignals = newSignals;
       phoenixQueues.add(queue);
+      return queue;
     } finally {
       signalsLock.unlock();
-      Drive.odometryLock.unlock();
     }
-    return queue;
   }
 
   /** Registers a generic signal to be read from the thread. */
-  public Queue<Double> registerSignal(DoubleSupplier signal) {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
+  public DoubleRingBuffer registerSignal(DoubleSupplier signal) {
     signalsLock.lock();
-    Drive.odometryLock.lock();
     try {
+      DoubleRingBuffer queue = new DoubleRingBuffer(QUEUE_CAPACITY, publishedSampleCount);
       genericSignals.add(signal);
       genericQueues.add(queue);
+      return queue;
     } finally {
       signalsLock.unlock();
-      Drive.odometryLock.unlock();
     }
-    return queue;
   }
 
   /** Returns a new queue that returns timestamp values for each sample. */
-  public Queue<Double> makeTimestampQueue() {
-    Queue<Double> queue = new ArrayBlockingQueue<>(20);
-    Drive.odometryLock.lock();
+  public DoubleRingBuffer makeTimestampQueue() {
+    signalsLock.lock();
     try {
+      DoubleRingBuffer queue = new DoubleRingBuffer(QUEUE_CAPACITY, publishedSampleCount);
       timestampQueues.add(queue);
+      return queue;
     } finally {
-      Drive.odometryLock.unlock();
+      signalsLock.unlock();
     }
-    return queue;
+  }
+
+  /**
+   * Marks the samples published so far as the ones to consume this cycle. Must be called from the
+   * main loop before any queue is drained.
+   */
+  public void latchSampleCount() {
+    latchedSampleCount = publishedSampleCount;
+  }
+
+  /** Returns the sample index that queues should be drained up to this cycle. */
+  public long getLatchedSampleCount() {
+    return latchedSampleCount;
+  }
+
+  /** Returns the total number of samples dropped because a consumer fell behind. */
+  public long getOverflowCount() {
+    return droppedSampleCount;
   }
 
   @Override
@@ -134,7 +165,7 @@ public class PhoenixOdometryThread extends Thread {
       }
 
       // Save new data to queues
-      Drive.odometryLock.lock();
+      signalsLock.lock();
       try {
         // Sample timestamp is current FPGA time minus average CAN latency
         //     Default timestamps from Phoenix are NOT compatible with
@@ -148,19 +179,51 @@ public class PhoenixOdometryThread extends Thread {
           timestamp -= totalLatency / phoenixSignals.length;
         }
 
-        // Add new samples to queues
+        if (phoenixSamples.length != phoenixSignals.length) {
+          phoenixSamples = new double[phoenixSignals.length];
+        }
+        if (genericSamples.length != genericSignals.size()) {
+          genericSamples = new double[genericSignals.size()];
+        }
         for (int i = 0; i < phoenixSignals.length; i++) {
-          phoenixQueues.get(i).offer(phoenixSignals[i].getValueAsDouble());
+          phoenixSamples[i] = phoenixSignals[i].getValueAsDouble();
         }
         for (int i = 0; i < genericSignals.size(); i++) {
-          genericQueues.get(i).offer(genericSignals.get(i).getAsDouble());
+          genericSamples[i] = genericSignals.get(i).getAsDouble();
+        }
+
+        // Skip the sample everywhere if any consumer is full, so the queues never go out of step
+        if (anyQueueFull()) {
+          droppedSampleCount = droppedSampleCount + 1;
+          continue;
+        }
+        for (int i = 0; i < phoenixSamples.length; i++) {
+          phoenixQueues.get(i).offer(phoenixSamples[i]);
+        }
+        for (int i = 0; i < genericSamples.length; i++) {
+          genericQueues.get(i).offer(genericSamples[i]);
         }
         for (int i = 0; i < timestampQueues.size(); i++) {
           timestampQueues.get(i).offer(timestamp);
         }
+        publishedSampleCount = publishedSampleCount + 1;
       } finally {
-        Drive.odometryLock.unlock();
+        signalsLock.unlock();
       }
     }
   }
+
+  /** Returns true if any queue has no room for another sample. Call while holding signalsLock. */
+  private boolean anyQueueFull() {
+    for (int i = 0; i < phoenixQueues.size(); i++) {
+      if (phoenixQueues.get(i).isFull()) return true;
+    }
+    for (int i = 0; i < genericQueues.size(); i++) {
+      if (genericQueues.get(i).isFull()) return true;
+    }
+    for (int i = 0; i < timestampQueues.size(); i++) {
+      if (timestampQueues.get(i).isFull()) return true;
+    }
+    return false;
+  }
 }
@@ -0,0 +1,356 @@
+package frc.robot.Robot25.subsystems.drive;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import java.util.Optional;
+
+/**
+ * Swerve pose estimator with the same update and vision API as {@link
+ * edu.wpi.first.math.estimator.SwerveDrivePoseEstimator}, but with the odometry history kept in
+ * primitive circular arrays instead of a TreeMap of boxed poses.
+ *
+ * <p>Pure odometry (never corrected by vision) is recorded for every sample. A vision measurement
+ * looks up the odometry pose at its timestamp in constant time, carries the current estimate back
+ * to that time by the odometry motion since then, applies the correction there, and carries it
+ * forward again. Because odometry motion is the same before and after a correction, the history
+ * never has to be replayed.
+ *
+ * <p>For measurements added in timestamp order this gives the same estimate as WPILib, up to
+ * rounding, as long as they land on odometry sample times. Between samples the odometry pose is
+ * interpolated linearly rather than along a twist. A measurement older than one already added is
+ * applied on top of it, where WPILib rebuilds every later correction.
+ */
+public class PoseHistoryEstimator {
+  private static final double HISTORY_SECONDS = 1.5;
+
+  private final SwerveDriveKinematics kinematics;
+  private final double[] stateVariances = new double[3];
+
+  // Previous module positions and the deltas from them, reused every sample
+  private final SwerveModulePosition[] previousPositions;
+  private final SwerveModulePosition[] moduleDeltas;
+
+  // Odometry history ring, sample i is at index (oldest + i) % capacity
+  private final int capacity;
+  private final double[] historyTimes;
+  private final double[] historyX;
+  private final double[] historyY;
+  private final double[] historyYaw;
+  private int oldest = 0;
+  private int size = 0;
+
+  // Current odometry and estimated poses
+  private double odometryX;
+  private double odometryY;
+  private double odometryYaw;
+  private double estimateX;
+  private double estimateY;
+  private double estimateYaw;
+  private Pose2d estimatedPose;
+
+  private double gyroOffsetRad;
+  private double previousAngleRad;
+
+  // Written by carryBack(), the estimate at a past time and the odometry motion since then
+  private double pastX;
+  private double pastY;
+  private double pastYaw;
+  private double motionX;
+  private double motionY;
+  private double motionYaw;
+
+  /**
+   * @param odometryFrequencyHz highest rate updateWithTime will be called at, sizes the history
+   * @param stateStdDevs standard deviations of the odometry x, y and heading
+   */
+  public PoseHistoryEstimator(
+      SwerveDriveKinematics kinematics,
+      Rotation2d gyroAngle,
+      SwerveModulePosition[] modulePositions,
+      Pose2d initialPose,
+      double odometryFrequencyHz,
+      double[] stateStdDevs) {
+    this.kinematics = kinematics;
+    for (int i = 0; i < 3; i++) {
+      stateVariances[i] = stateStdDevs[i] * stateStdDevs[i];
+    }
+    previousPositions = new SwerveModulePosition[modulePositions.length];
+    moduleDeltas = new SwerveModulePosition[modulePositions.length];
+    for (int i = 0; i < modulePositions.length; i++) {
+      previousPositions[i] = new SwerveModulePosition();
+      moduleDeltas[i] = new SwerveModulePosition();
+    }
+    capacity = (int) Math.ceil(HISTORY_SECONDS * odometryFrequencyHz) + 1;
+    historyTimes = new double[capacity];
+    historyX = new double[capacity];
+    historyY = new double[capacity];
+    historyYaw = new double[capacity];
+    resetPosition(gyroAngle, modulePositions, initialPose);
+  }
+
+  /** Creates an estimator with the same default state standard deviations as WPILib's. */
+  public PoseHistoryEstimator(
+      SwerveDriveKinematics kinematics,
+      Rotation2d gyroAngle,
+      SwerveModulePosition[] modulePositions,
+      Pose2d initialPose,
+      double odometryFrequencyHz) {
+    this(
+        kinematics,
+        gyroAngle,
+        modulePositions,
+        initialPose,
+        odometryFrequencyHz,
+        new double[] {0.1, 0.1, 0.1});
+  }
+
+  /** Resets the estimated and odometry poses and clears the history. */
+  public void resetPosition(
+      Rotation2d gyroAngle, SwerveModulePosition[] modulePositions, Pose2d pose) {
+    odometryX = pose.getX();
+    odometryY = pose.getY();
+    odometryYaw = pose.getRotation().getRadians();
+    estimateX = odometryX;
+    estimateY = odometryY;
+    estimateYaw = odometryYaw;
+    estimatedPose = pose;
+    gyroOffsetRad = odometryYaw - gyroAngle.getRadians();
+    previousAngleRad = odometryYaw;
+    for (int i = 0; i < modulePositions.length; i++) {
+      previousPositions[i].distanceMeters = modulePositions[i].distanceMeters;
+      previousPositions[i].angle = modulePositions[i].angle;
+    }
+    oldest = 0;
+    size = 0;
+  }
+
+  /**
+   * Adds an odometry sample. The module positions are copied, so the caller can reuse the same
+   * objects every sample.
+   */
+  public void updateWithTime(
+      double timestampSeconds, Rotation2d gyroAngle, SwerveModulePosition[] modulePositions) {
+    for (int i = 0; i < modulePositions.length; i++) {
+      moduleDeltas[i].distanceMeters =
+          modulePositions[i].distanceMeters - previousPositions[i].distanceMeters;
+      moduleDeltas[i].angle = modulePositions[i].angle;
+      previousPositions[i].distanceMeters = modulePositions[i].distanceMeters;
+      previousPositions[i].angle = modulePositions[i].angle;
+    }
+    Twist2d twist = kinematics.toTwist2d(moduleDeltas);
+
+    // Use the gyro for heading, like WPILib's odometry
+    double angleRad = gyroAngle.getRadians() + gyroOffsetRad;
+    double dtheta = MathUtil.angleModulus(angleRad - previousAngleRad);
+    previousAngleRad = angleRad;
+
+    // Both poses move by the same twist in their own frame
+    double sinTheta;
+    double cosTheta;
+    if (Math.abs(dtheta) < 1e-9) {
+      sinTheta = 1.0 - dtheta * dtheta / 6.0;
+      cosTheta = dtheta / 2.0;
+    } else {
+      sinTheta = Math.sin(dtheta) / dtheta;
+      cosTheta = (1.0 - Math.cos(dtheta)) / dtheta;
+    }
+    double localX = twist.dx * sinTheta - twist.dy * cosTheta;
+    double localY = twist.dx * cosTheta + twist.dy * sinTheta;
+
+    double cos = Math.cos(odometryYaw);
+    double sin = Math.sin(odometryYaw);
+    odometryX += localX * cos - localY * sin;
+    odometryY += localX * sin + localY * cos;
+    odometryYaw = MathUtil.angleModulus(odometryYaw + dtheta);
+
+    cos = Math.cos(estimateYaw);
+    sin = Math.sin(estimateYaw);
+    estimateX += localX * cos - localY * sin;
+    estimateY += localX * sin + localY * cos;
+    estimateYaw = MathUtil.angleModulus(estimateYaw + dtheta);
+    estimatedPose = null;
+
+    // Record the odometry pose, overwriting the oldest sample once full
+    int index;
+    if (size < capacity) {
+      index = (oldest + size) % capacity;
+      size++;
+    } else {
+      index = oldest;
+      oldest = (oldest + 1) % capacity;
+    }
+    historyTimes[index] = timestampSeconds;
+    historyX[index] = odometryX;
+    historyY[index] = odometryY;
+    historyYaw[index] = odometryYaw;
+  }
+
+  /**
+   * Returns the position in the history of the last sample at or before the timestamp. Samples are
+   * close to evenly spaced, so the guess from the timestamp is normally already right and the walk
+   * only takes a step or two.
+   */
+  private int findSample(double timestampSeconds) {
+    double first = historyTimes[oldest];
+    double last = historyTimes[(oldest + size - 1) % capacity];
+    int i = 0;
+    if (last > first) {
+      i = (int) ((timestampSeconds - first) / (last - first) * (size - 1));
+      i = MathUtil.clamp(i, 0, size - 1);
+    }
+    while (i > 0 && historyTimes[(oldest + i) % capacity] > timestampSeconds) {
+      i--;
+    }
+    while (i < size - 1 && historyTimes[(oldest + i + 1) % capacity] <= timestampSeconds) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Finds the estimated pose at a past timestamp by undoing the odometry motion since then from the
+   * current estimate. Sets the past and motion fields.
+   *
+   * @return false if the timestamp is older than the history
+   */
+  private boolean carryBack(double timestampSeconds) {
+    if (size == 0 || timestampSeconds < historyTimes[oldest]) {
+      return false;
+    }
+
+    // Odometry pose at the timestamp, interpolated between the samples around it
+    int i = findSample(timestampSeconds);
+    int a = (oldest + i) % capacity;
+    double sampleX = historyX[a];
+    double sampleY = historyY[a];
+    double sampleYaw = historyYaw[a];
+    if (i < size - 1) {
+      int b = (oldest + i + 1) % capacity;
+      double t = (timestampSeconds - historyTimes[a]) / (historyTimes[b] - historyTimes[a]);
+      sampleX += (historyX[b] - sampleX) * t;
+      sampleY += (historyY[b] - sampleY) * t;
+      sampleYaw += MathUtil.angleModulus(historyYaw[b] - sampleYaw) * t;
+    }
+
+    // Odometry motion from the timestamp to now, in the frame of the sample
+    double cos = Math.cos(sampleYaw);
+    double sin = Math.sin(sampleYaw);
+    double dx = odometryX - sampleX;
+    double dy = odometryY - sampleY;
+    motionX = dx * cos + dy * sin;
+    motionY = -dx * sin + dy * cos;
+    motionYaw = MathUtil.angleModulus(odometryYaw - sampleYaw);
+
+    // Estimate at the timestamp, undoing that motion from the current estimate
+    pastYaw = MathUtil.angleModulus(estimateYaw - motionYaw);
+    cos = Math.cos(pastYaw);
+    sin = Math.sin(pastYaw);
+    pastX = estimateX - (motionX * cos - motionY * sin);
+    pastY = estimateY - (motionX * sin + motionY * cos);
+    return true;
+  }
+
+  /**
+   * Returns the estimated pose at a past timestamp, as the current estimate minus the odometry
+   * motion since then, or empty if the timestamp is older than the history.
+   */
+  public Optional<Pose2d> sampleAt(double timestampSeconds) {
+    if (!carryBack(timestampSeconds)) {
+      return Optional.empty();
+    }
+    return Optional.of(new Pose2d(pastX, pastY, new Rotation2d(pastYaw)));
+  }
+
+  /**
+   * Fuses a vision pose measured at the given timestamp. Measurements older than the history are
+   * ignored.
+   *
+   * @param visionMeasurementStdDevs standard deviations of the vision x, y and heading
+   */
+  public void addVisionMeasurement(
+      Pose2d visionRobotPoseMeters,
+      double timestampSeconds,
+      Matrix<N3, N1> visionMeasurementStdDevs) {
+    if (!carryBack(timestampSeconds)) {
+      return;
+    }
+
+    // Measurement relative to the estimate at that time, in the robot frame
+    double cos = Math.cos(pastYaw);
+    double sin = Math.sin(pastYaw);
+    double errorX = visionRobotPoseMeters.getX() - pastX;
+    double errorY = visionRobotPoseMeters.getY() - pastY;
+    double relativeX = errorX * cos + errorY * sin;
+    double relativeY = -errorX * sin + errorY * cos;
+    double relativeYaw =
+        MathUtil.angleModulus(visionRobotPoseMeters.getRotation().getRadians() - pastYaw);
+
+    // Scale the twist to the measurement (Pose2d.log) by the steady state Kalman gain, as WPILib
+    // does, so large heading errors move along the same arc
+    double halfYaw = relativeYaw / 2.0;
+    double cosMinusOne = Math.cos(relativeYaw) - 1.0;
+    double halfYawByTanOfHalfYaw;
+    if (Math.abs(cosMinusOne) < 1e-9) {
+      halfYawByTanOfHalfYaw = 1.0 - relativeYaw * relativeYaw / 12.0;
+    } else {
+      halfYawByTanOfHalfYaw = -(halfYaw * Math.sin(relativeYaw)) / cosMinusOne;
+    }
+    double twistX = relativeX * halfYawByTanOfHalfYaw + relativeY * halfYaw;
+    double twistY = -relativeX * halfYaw + relativeY * halfYawByTanOfHalfYaw;
+    twistX *= gain(0, visionMeasurementStdDevs.get(0, 0));
+    twistY *= gain(1, visionMeasurementStdDevs.get(1, 0));
+    double twistYaw = relativeYaw * gain(2, visionMeasurementStdDevs.get(2, 0));
+
+    // Apply the scaled twist to the past estimate (Pose2d.exp)
+    double s;
+    double c;
+    if (Math.abs(twistYaw) < 1e-9) {
+      s = 1.0 - twistYaw * twistYaw / 6.0;
+      c = twistYaw / 2.0;
+    } else {
+      s = Math.sin(twistYaw) / twistYaw;
+      c = (1.0 - Math.cos(twistYaw)) / twistYaw;
+    }
+    double stepX = twistX * s - twistY * c;
+    double stepY = twistX * c + twistY * s;
+    double correctedX = pastX + stepX * cos - stepY * sin;
+    double correctedY = pastY + stepX * sin + stepY * cos;
+    double correctedYaw = MathUtil.angleModulus(pastYaw + twistYaw);
+
+    // Carry the corrected estimate forward to now
+    cos = Math.cos(correctedYaw);
+    sin = Math.sin(correctedYaw);
+    estimateX = correctedX + motionX * cos - motionY * sin;
+    estimateY = correctedY + motionX * sin + motionY * cos;
+    estimateYaw = MathUtil.angleModulus(correctedYaw + motionYaw);
+    estimatedPose = null;
+  }
+
+  private double gain(int axis, double visionStdDev) {
+    double q = stateVariances[axis];
+    if (q == 0.0) {
+      return 0.0;
+    }
+    return q / (q + Math.sqrt(q * visionStdDev * visionStdDev));
+  }
+
+  /** Returns the current estimated pose. The same object is returned until the estimate changes. */
+  public Pose2d getEstimatedPosition() {
+    if (estimatedPose == null) {
+      estimatedPose = new Pose2d(estimateX, estimateY, new Rotation2d(estimateYaw));
+    }
+    return estimatedPose;
+  }
+
+  /** Returns the pose from odometry alone, without vision corrections. */
+  public Pose2d getOdometryPose() {
+    return new Pose2d(odometryX, odometryY, new Rotation2d(odometryYaw));
+  }
+}
@@ -21,10 +21,14 @@ import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj.util.Color8Bit;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.LoopTimer;
 
 public class Elevator extends SubsystemBase {
   private final ElevatorIO io;
   private final ElevatorIOInputsAutoLogged inputs = new ElevatorIOInputsAutoLogged();
+  private final LoopTimer periodicTimer = new LoopTimer("Elevator/Periodic", 2.0);
+  private final LoopTimer updateInputsTimer = new LoopTimer("Elevator/UpdateInputs", 1.0);
+  private final LoopTimer processInputsTimer = new LoopTimer("Elevator/ProcessInputs", 1.0);
 
   @AutoLogOutput
   public final LoggedMechanism2d mechanism2d =
@@ -93,8 +97,13 @@ public class Elevator extends SubsystemBase {
 
   @Override
   public void periodic() {
+    periodicTimer.start();
+    updateInputsTimer.start();
     io.updateInputs(inputs);
+    updateInputsTimer.stop();
+    processInputsTimer.start();
     Logger.processInputs("Elevator", inputs);
+    processInputsTimer.stop();
     elevatorMech2d.setLength(radiansToInches(inputs.winchPosition).in(Meters));
 
     Logger.recordOutput("Elevator/EstimatedHeight",
@@ -107,6 +116,7 @@ public class Elevator extends SubsystemBase {
 
     Logger.recordOutput("Elevator/PTuning",
         currentLevel.getHeight().minus(radiansToInches(inputs.winchPosition)));
+    periodicTimer.stop();
   }
 
   private Angle inchesToRadians(Distance d) {
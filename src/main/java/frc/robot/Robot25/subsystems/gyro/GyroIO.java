@@ -23,7 +23,9 @@ public interface GyroIO {
     public Rotation2d yawPosition = new Rotation2d();
     public double yawVelocityRadPerSec = 0.0;
     public double[] odometryYawTimestamps = new double[] {};
-    public Rotation2d[] odometryYawPositions = new Rotation2d[] {};
+    // Radians. Named as before so the log key doesn't change, but logs from when this was a
+    // Rotation2d[] replay with no yaw samples.
+    public double[] odometryYawPositions = new double[] {};
   }
 
   public default void updateInputs(GyroIOInputs inputs) {}
@@ -17,16 +17,18 @@ import com.studica.frc.AHRS;
 import com.studica.frc.AHRS.NavXComType;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
+import frc.robot.Robot25.subsystems.drive.DoubleRingBuffer;
 import frc.robot.Robot25.subsystems.drive.DriveConstants;
 import frc.robot.Robot25.subsystems.drive.PhoenixOdometryThread;
-import java.util.Queue;
 
 /** IO implementation for NavX. */
 public class GyroIONavX implements GyroIO {
+  private static final double DEGREES_TO_RADIANS = Units.degreesToRadians(1.0);
+
   private final AHRS navX =
       new AHRS(NavXComType.kMXP_SPI, (byte) DriveConstants.ODOMETRY_FREQUENCY);
-  private final Queue<Double> yawPositionQueue;
-  private final Queue<Double> yawTimestampQueue;
+  private final DoubleRingBuffer yawPositionQueue;
+  private final DoubleRingBuffer yawTimestampQueue;
 
   public GyroIONavX() {
     yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
@@ -39,13 +41,9 @@ public class GyroIONavX implements GyroIO {
     inputs.yawPosition = Rotation2d.fromDegrees(-navX.getYaw());
     inputs.yawVelocityRadPerSec = Units.degreesToRadians(-navX.getRawGyroZ());
 
-    inputs.odometryYawTimestamps =
-        yawTimestampQueue.stream().mapToDouble((Double value) -> value).toArray();
+    long sampleLimit = PhoenixOdometryThread.getInstance().getLatchedSampleCount();
+    inputs.odometryYawTimestamps = yawTimestampQueue.drainUntil(sampleLimit, 1.0);
     inputs.odometryYawPositions =
-        yawPositionQueue.stream()
-            .map((Double value) -> Rotation2d.fromDegrees(-value))
-            .toArray(Rotation2d[]::new);
-    yawTimestampQueue.clear();
-    yawPositionQueue.clear();
+        yawPositionQueue.drainUntil(sampleLimit, -DEGREES_TO_RADIANS);
   }
 }
@@ -14,8 +14,6 @@
 package frc.robot.Robot25.subsystems.gyro;
 
 import static edu.wpi.first.units.Units.Degrees;
-import com.ctre.phoenix6.BaseStatusSignal;
-import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.MountPoseConfigs;
 import com.ctre.phoenix6.configs.Pigeon2Configuration;
@@ -24,39 +22,45 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
+import frc.lib.devices.StatusFramePlanner;
+import frc.lib.devices.StatusSignalRegistry;
+import frc.robot.Robot25.subsystems.drive.DoubleRingBuffer;
 import frc.robot.Robot25.subsystems.drive.DriveConstants;
 import frc.robot.Robot25.subsystems.drive.PhoenixOdometryThread;
-import java.util.Queue;
 
 /** IO implementation for Pigeon 2. */
 public class GyroIOPigeon2 implements GyroIO {
+  private static final double DEGREES_TO_RADIANS = Units.degreesToRadians(1.0);
+
   private final Pigeon2 pigeon = new Pigeon2(DriveConstants.DrivetrainConstants.Pigeon2Id,
       DriveConstants.DrivetrainConstants.CANBusName);
-  private final StatusSignal<Angle> yaw = pigeon.getYaw();
-  private final Queue<Double> yawPositionQueue;
-  private final Queue<Double> yawTimestampQueue;
+  // Clone of the yaw signal the odometry thread refreshes, so the main loop never touches that one
+  private final StatusSignal<Angle> yaw = pigeon.getYaw().clone();
+  private final DoubleRingBuffer yawPositionQueue;
+  private final DoubleRingBuffer yawTimestampQueue;
   private final StatusSignal<AngularVelocity> yawVelocity = pigeon.getAngularVelocityZWorld();
+  private final StatusSignalRegistry.Group signals;
 
   public GyroIOPigeon2() {
     pigeon.getConfigurator().setYaw(0.0);
-    yaw.setUpdateFrequency(DriveConstants.ODOMETRY_FREQUENCY);
-    yawVelocity.setUpdateFrequency(50.0);
+    String busName = DriveConstants.DrivetrainConstants.CANBusName;
+    StatusFramePlanner.declare(
+        busName, DriveConstants.ODOMETRY_FREQUENCY, DriveConstants.ODOMETRY_FREQUENCY, yaw);
+    StatusFramePlanner.declare(busName, 25.0, 50.0, yawVelocity);
     pigeon.optimizeBusUtilization();
+    signals = StatusSignalRegistry.register(busName, yaw, yawVelocity);
     yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
     yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(pigeon.getYaw());
   }
 
   @Override
   public void updateInputs(GyroIOInputs inputs) {
-    inputs.connected = BaseStatusSignal.refreshAll(yaw, yawVelocity).equals(StatusCode.OK);
+    inputs.connected = signals.isOK();
     inputs.yawPosition = Rotation2d.fromDegrees(yaw.getValueAsDouble());
     inputs.yawVelocityRadPerSec = Units.degreesToRadians(yawVelocity.getValueAsDouble());
 
-    inputs.odometryYawTimestamps =
-        yawTimestampQueue.stream().mapToDouble((Double value) -> value).toArray();
-    inputs.odometryYawPositions = yawPositionQueue.stream()
-        .map((Double value) -> Rotation2d.fromDegrees(value)).toArray(Rotation2d[]::new);
-    yawTimestampQueue.clear();
-    yawPositionQueue.clear();
+    long sampleLimit = PhoenixOdometryThread.getInstance().getLatchedSampleCount();
+    inputs.odometryYawTimestamps = yawTimestampQueue.drainUntil(sampleLimit, 1.0);
+    inputs.odometryYawPositions = yawPositionQueue.drainUntil(sampleLimit, DEGREES_TO_RADIANS);
   }
 }
@@ -2,8 +2,10 @@ package frc.robot.Robot25.subsystems.gyro;
 
 import static edu.wpi.first.units.Units.RadiansPerSecond;
 
+import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
 import frc.robot.Robot25.util.PhoenixUtil;
+import java.util.Arrays;
 import org.ironmaple.simulation.drivesims.GyroSimulation;
 
 public class GyroIOSim implements GyroIO {
@@ -21,6 +23,7 @@ public class GyroIOSim implements GyroIO {
         Units.degreesToRadians(gyroSimulation.getMeasuredAngularVelocity().in(RadiansPerSecond));
 
     inputs.odometryYawTimestamps = PhoenixUtil.getSimulationOdometryTimeStamps();
-    inputs.odometryYawPositions = gyroSimulation.getCachedGyroReadings();
+    inputs.odometryYawPositions = Arrays.stream(gyroSimulation.getCachedGyroReadings())
+        .mapToDouble(Rotation2d::getRadians).toArray();
   }
 }
@@ -0,0 +1,144 @@
+// Copyright 2021-2025 FRC 6328
+// http://github.com/Mechanical-Advantage
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// version 3 as published by the Free Software Foundation or
+// available in the root directory of this project.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+
+
+package frc.robot.Robot25.subsystems.vision;
+
+import static frc.robot.Robot25.subsystems.vision.VisionConstants.*;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.LoopTimer;
+import frc.robot.Robot25.subsystems.vision.VisionIO.PoseObservation;
+import java.util.ArrayList;
+import java.util.Optional;
+import org.littletonrobotics.junction.Logger;
+
+public class Vision extends SubsystemBase {
+  private final VisionFusion fusion;
+  private final VisionIO[] io;
+  private final VisionIOInputsAutoLogged[] inputs;
+  private final Alert[] disconnectedAlerts;
+  private final LoopTimer periodicTimer = new LoopTimer("Vision/Periodic", 2.0);
+
+  // Reused every cycle for logging
+  private final ArrayList<Pose3d> acceptedPoses = new ArrayList<>();
+  private final ArrayList<Pose3d> rejectedPoses = new ArrayList<>();
+
+  public Vision(VisionConsumer consumer, VisionIO... io) {
+    this.fusion = new VisionFusion(consumer, 32);
+    this.io = io;
+
+    // Initialize inputs
+    this.inputs = new VisionIOInputsAutoLogged[io.length];
+    for (int i = 0; i < inputs.length; i++) {
+      inputs[i] = new VisionIOInputsAutoLogged();
+    }
+
+    // Initialize disconnected alerts
+    this.disconnectedAlerts = new Alert[io.length];
+    for (int i = 0; i < inputs.length; i++) {
+      disconnectedAlerts[i] =
+          new Alert(
+              "Vision camera " + Integer.toString(i) + " is disconnected.", AlertType.kWarning);
+    }
+  }
+
+  @Override
+  public void periodic() {
+    periodicTimer.start();
+    for (int i = 0; i < io.length; i++) {
+      io[i].updateInputs(inputs[i]);
+      Logger.processInputs("Vision/Camera" + Integer.toString(i), inputs[i]);
+    }
+
+    // Loop over cameras
+    for (int cameraIndex = 0; cameraIndex < io.length; cameraIndex++) {
+      // Update disconnected alert
+      disconnectedAlerts[cameraIndex].set(!inputs[cameraIndex].connected);
+      acceptedPoses.clear();
+      rejectedPoses.clear();
+
+      // Every frame received since the last loop, oldest first
+      for (PoseObservation observation : inputs[cameraIndex].poseObservations) {
+        if (shouldReject(observation)) {
+          rejectedPoses.add(observation.pose());
+          continue;
+        }
+        acceptedPoses.add(observation.pose());
+
+        // Calculate standard deviations
+        double stdDevFactor =
+            Math.pow(observation.averageTagDistance(), 2.0) / observation.tagCount();
+        double linearStdDev = linearStdDevBaseline * stdDevFactor;
+        double angularStdDev = angularStdDevBaseline * stdDevFactor;
+        if (cameraIndex < cameraStdDevFactors.length) {
+          linearStdDev *= cameraStdDevFactors[cameraIndex];
+          angularStdDev *= cameraStdDevFactors[cameraIndex];
+        }
+
+        // Queue vision observation for fusion with the other cameras
+        fusion.add(
+            observation.timestamp(), observation.pose().toPose2d(), linearStdDev, angularStdDev);
+      }
+
+      // Log camera data
+      String key = "Vision/Camera" + Integer.toString(cameraIndex);
+      Logger.recordOutput(key + "/RobotPosesAccepted", acceptedPoses.toArray(new Pose3d[0]));
+      Logger.recordOutput(key + "/RobotPosesRejected", rejectedPoses.toArray(new Pose3d[0]));
+    }
+
+    // Send fused observations
+    fusion.flush();
+    periodicTimer.stop();
+  }
+
+  /** Filters out observations with too few or too ambiguous tags, or poses off the field. */
+  private static boolean shouldReject(PoseObservation observation) {
+    return observation.tagCount() == 0 // Must have at least one tag
+        || (observation.tagCount() == 1
+            && observation.ambiguity() > maxAmbiguity) // Cannot be high ambiguity
+        || Math.abs(observation.pose().getZ()) > maxZError // Must have realistic Z coordinate
+        || observation.averageTagDistance() > maxAverageTagDistance // Must be close enough
+
+        // Must be within the field boundaries
+        || observation.pose().getX() < 0.0
+        || observation.pose().getX() > aprilTagLayout.getFieldLength()
+        || observation.pose().getY() < 0.0
+        || observation.pose().getY() > aprilTagLayout.getFieldWidth();
+  }
+
+  @FunctionalInterface
+  public static interface VisionConsumer {
+    public void accept(
+        Pose2d visionRobotPoseMeters,
+        double timestampSeconds,
+        Matrix<N3, N1> visionMeasurementStdDevs);
+
+    /** Returns the estimated pose at a recent timestamp, or empty to skip outlier rejection. */
+    public default Optional<Pose2d> getPoseAt(double timestampSeconds) {
+      return Optional.empty();
+    }
+
+    /** Returns a count that changes whenever the estimated pose is reset. */
+    public default int getPoseResetCount() {
+      return 0;
+    }
+  }
+}
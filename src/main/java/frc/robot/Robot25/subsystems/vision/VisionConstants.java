@@ -0,0 +1,54 @@
+// Copyright 2021-2025 FRC 6328
+// http://github.com/Mechanical-Advantage
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// version 3 as published by the Free Software Foundation or
+// available in the root directory of this project.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+
+
+package frc.robot.Robot25.subsystems.vision;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+
+public class VisionConstants {
+  // AprilTag layout
+  public static AprilTagFieldLayout aprilTagLayout =
+      AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeWelded);
+
+  // Camera names, must match names configured on the Limelights
+  public static String camera0Name = "limelight-right";
+
+  // Basic filtering thresholds
+  public static double maxAmbiguity = 0.3;
+  public static double maxZError = 0.75;
+  public static double maxAverageTagDistance = 4.0; // Meters
+
+  // Standard deviation baselines, for 1 meter distance and 1 tag
+  // (Adjusted automatically based on distance and # of tags)
+  public static double linearStdDevBaseline = 0.02; // Meters
+  public static double angularStdDevBaseline = 0.06; // Radians
+
+  // Standard deviation multipliers for each camera
+  // (Adjust to trust some cameras more than others)
+  public static double[] cameraStdDevFactors =
+      new double[] {
+        1.0 // Camera 0
+      };
+
+  // Multi-camera fusion
+  // (Frames within the window are combined into one update, frames too far from the current
+  // estimate are rejected until the estimate has rejected everything for a while, after which
+  // nothing is rejected until a frame agrees with it again or the pose is reset)
+  public static double fusionWindowSeconds = 0.03;
+  public static double maxMahalanobisDistanceSquared = 11.34; // 99% for 3 degrees of freedom
+  public static double priorLinearStdDev = 0.1; // Meters
+  public static double priorAngularStdDev = 0.1; // Radians
+  public static int maxConsecutiveRejectedGroups = 25;
+}
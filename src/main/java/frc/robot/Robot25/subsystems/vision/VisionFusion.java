@@ -0,0 +1,193 @@
+package frc.robot.Robot25.subsystems.vision;
+
+import static frc.robot.Robot25.subsystems.vision.VisionConstants.*;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.Robot25.subsystems.vision.Vision.VisionConsumer;
+import java.util.ArrayList;
+import java.util.Optional;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Combines the filtered observations from every camera into fewer, better pose estimator updates.
+ *
+ * <p>Each loop, observations are sorted by timestamp and grouped when they were taken within
+ * fusionWindowSeconds of the first in the group. Each one is gated against the estimated pose at
+ * its timestamp by Mahalanobis distance, moved to the time of the newest observation in the group
+ * by the odometry motion between the two, and the survivors are averaged with inverse variance
+ * weights into one update.
+ *
+ * <p>If maxConsecutiveRejectedGroups groups in a row are rejected, the estimate is assumed to be
+ * wrong and the gate is switched off. It stays off until a group would have passed it again or the
+ * consumer reports that its pose was reset.
+ */
+public class VisionFusion {
+  private final VisionConsumer consumer;
+
+  // Observations added this loop, as parallel arrays
+  private final int capacity;
+  private final double[] timestamps;
+  private final Pose2d[] poses;
+  private final double[] linearStdDevs;
+  private final double[] angularStdDevs;
+  private final int[] order;
+  private int count = 0;
+  private int droppedCount = 0;
+
+  private int consecutiveRejectedGroups = 0;
+  private boolean gateEnabled = true;
+  private int lastPoseResetCount = 0;
+
+  // Reused every loop for logging
+  private final ArrayList<Pose2d> fusedPoses = new ArrayList<>();
+  private final ArrayList<Pose2d> rejectedPoses = new ArrayList<>();
+
+  public VisionFusion(VisionConsumer consumer, int capacity) {
+    this.consumer = consumer;
+    this.capacity = capacity;
+    timestamps = new double[capacity];
+    poses = new Pose2d[capacity];
+    linearStdDevs = new double[capacity];
+    angularStdDevs = new double[capacity];
+    order = new int[capacity];
+  }
+
+  /** Adds an observation that passed the per-camera filters. Extra observations are dropped. */
+  public void add(double timestamp, Pose2d pose, double linearStdDev, double angularStdDev) {
+    if (count == capacity) {
+      droppedCount++;
+      return;
+    }
+    timestamps[count] = timestamp;
+    poses[count] = pose;
+    linearStdDevs[count] = linearStdDev;
+    angularStdDevs[count] = angularStdDev;
+    count++;
+  }
+
+  /** Fuses the observations added since the last call and sends the results to the consumer. */
+  public void flush() {
+    fusedPoses.clear();
+    rejectedPoses.clear();
+
+    int poseResetCount = consumer.getPoseResetCount();
+    if (poseResetCount != lastPoseResetCount) {
+      lastPoseResetCount = poseResetCount;
+      gateEnabled = true;
+      consecutiveRejectedGroups = 0;
+    }
+
+    // Sort by timestamp, there are only a handful per loop
+    for (int i = 0; i < count; i++) {
+      int j = i;
+      while (j > 0 && timestamps[order[j - 1]] > timestamps[i]) {
+        order[j] = order[j - 1];
+        j--;
+      }
+      order[j] = i;
+    }
+
+    int groupStart = 0;
+    while (groupStart < count) {
+      int groupEnd = groupStart + 1;
+      while (groupEnd < count
+          && timestamps[order[groupEnd]] - timestamps[order[groupStart]]
+              <= fusionWindowSeconds) {
+        groupEnd++;
+      }
+      fuseGroup(groupStart, groupEnd);
+      groupStart = groupEnd;
+    }
+
+    Logger.recordOutput("Vision/Fusion/FusedPoses", fusedPoses.toArray(new Pose2d[0]));
+    Logger.recordOutput("Vision/Fusion/RejectedPoses", rejectedPoses.toArray(new Pose2d[0]));
+    Logger.recordOutput("Vision/Fusion/DroppedCount", droppedCount);
+    Logger.recordOutput("Vision/Fusion/GateEnabled", gateEnabled);
+    count = 0;
+    droppedCount = 0;
+  }
+
+  /** Fuses the sorted observations from order[start] up to order[end - 1]. */
+  private void fuseGroup(int start, int end) {
+    double referenceTime = timestamps[order[end - 1]];
+    Optional<Pose2d> referencePrior = consumer.getPoseAt(referenceTime);
+    boolean passedGate = false;
+
+    double weightX = 0.0;
+    double weightYaw = 0.0;
+    double sumX = 0.0;
+    double sumY = 0.0;
+    double sumYaw = 0.0;
+    double firstYaw = 0.0;
+    for (int k = start; k < end; k++) {
+      int i = order[k];
+      Pose2d pose = poses[i];
+      Optional<Pose2d> prior = consumer.getPoseAt(timestamps[i]);
+
+      if (prior.isPresent()) {
+        if (mahalanobisDistanceSquared(pose, prior.get(), i) <= maxMahalanobisDistanceSquared) {
+          passedGate = true;
+        } else if (gateEnabled) {
+          rejectedPoses.add(pose);
+          continue;
+        }
+        // Move the observation to the reference time by the robot's motion since it was taken
+        if (referencePrior.isPresent()) {
+          pose = pose.plus(referencePrior.get().minus(prior.get()));
+        }
+      }
+
+      double linearWeight = 1.0 / (linearStdDevs[i] * linearStdDevs[i]);
+      double angularWeight = 1.0 / (angularStdDevs[i] * angularStdDevs[i]);
+      if (weightX == 0.0) {
+        firstYaw = pose.getRotation().getRadians();
+      }
+      weightX += linearWeight;
+      weightYaw += angularWeight;
+      sumX += pose.getX() * linearWeight;
+      sumY += pose.getY() * linearWeight;
+      // Average angles as offsets from the first so they do not wrap
+      sumYaw +=
+          MathUtil.angleModulus(pose.getRotation().getRadians() - firstYaw) * angularWeight;
+    }
+
+    if (gateEnabled) {
+      if (weightX == 0.0) {
+        if (++consecutiveRejectedGroups >= maxConsecutiveRejectedGroups) {
+          gateEnabled = false;
+        }
+        return;
+      }
+      consecutiveRejectedGroups = 0;
+    } else if (passedGate) {
+      // The estimate agrees with vision again
+      gateEnabled = true;
+      consecutiveRejectedGroups = 0;
+    }
+
+    Pose2d fused =
+        new Pose2d(
+            sumX / weightX, sumY / weightX, new Rotation2d(firstYaw + sumYaw / weightYaw));
+    double linearStdDev = Math.sqrt(1.0 / weightX);
+    double angularStdDev = Math.sqrt(1.0 / weightYaw);
+    fusedPoses.add(fused);
+    consumer.accept(
+        fused, referenceTime, VecBuilder.fill(linearStdDev, linearStdDev, angularStdDev));
+  }
+
+  /** Squared Mahalanobis distance from the prior, treating x, y and yaw as independent. */
+  private double mahalanobisDistanceSquared(Pose2d pose, Pose2d prior, int i) {
+    double linearVariance =
+        linearStdDevs[i] * linearStdDevs[i] + priorLinearStdDev * priorLinearStdDev;
+    double angularVariance =
+        angularStdDevs[i] * angularStdDevs[i] + priorAngularStdDev * priorAngularStdDev;
+    double dx = pose.getX() - prior.getX();
+    double dy = pose.getY() - prior.getY();
+    double dyaw = MathUtil.angleModulus(
+        pose.getRotation().getRadians() - prior.getRotation().getRadians());
+    return (dx * dx + dy * dy) / linearVariance + dyaw * dyaw / angularVariance;
+  }
+}
@@ -0,0 +1,76 @@
+// Copyright 2021-2025 FRC 6328
+// http://github.com/Mechanical-Advantage
+//
+// This program is free software; you can redistribute it and/or
+// modify it under the terms of the GNU General Public License
+// version 3 as published by the Free Software Foundation or
+// available in the root directory of this project.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+
+
+package frc.robot.Robot25.subsystems.vision;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.lib.limeLight.LimelightHelpers.PoseEstimateReader;
+import frc.lib.limeLight.LimelightHelpers.RawPoseEstimate;
+import java.util.Arrays;
+
+/**
+ * IO implementation for a Limelight running MegaTag 1. The botpose subscriber queues every frame
+ * the camera publishes, and updateInputs decodes the whole queue once per loop into reused
+ * estimates, so no frames are lost between loops and only the observations themselves allocate.
+ */
+public class VisionIOLimelight implements VisionIO {
+  private static final int MAX_QUEUED_OBSERVATIONS = 50;
+  private static final long DISCONNECTED_TIMEOUT_MICROS = 250_000;
+
+  private final PoseEstimateReader reader;
+
+  /**
+   * Creates a new VisionIOLimelight.
+   *
+   * @param name The configured name of the Limelight.
+   */
+  public VisionIOLimelight(String name) {
+    reader = new PoseEstimateReader(name, "botpose_wpiblue", MAX_QUEUED_OBSERVATIONS);
+  }
+
+  @Override
+  public void updateInputs(VisionIOInputs inputs) {
+    inputs.connected =
+        RobotController.getFPGATime() - reader.getLastChange() < DISCONNECTED_TIMEOUT_MICROS;
+
+    int count = reader.readQueue();
+    PoseObservation[] observations = new PoseObservation[count];
+    int n = 0;
+    for (int i = 0; i < count; i++) {
+      RawPoseEstimate estimate = reader.get(i);
+      if (estimate.tagCount < 1) {
+        continue;
+      }
+      double[] rawPose = estimate.rawPose;
+      observations[n++] =
+          new PoseObservation(
+              estimate.timestampSeconds,
+              new Pose3d(
+                  rawPose[0],
+                  rawPose[1],
+                  rawPose[2],
+                  new Rotation3d(
+                      Units.degreesToRadians(rawPose[3]),
+                      Units.degreesToRadians(rawPose[4]),
+                      Units.degreesToRadians(rawPose[5]))),
+              estimate.rawFiducialCount == 1 ? estimate.rawFiducials[0].ambiguity : 0.0,
+              estimate.tagCount,
+              estimate.avgTagDist);
+    }
+    inputs.poseObservations = n == count ? observations : Arrays.copyOf(observations, n);
+  }
+}
@@ -0,0 +1,117 @@
+package frc.robot.Robot25.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import org.junit.jupiter.api.Test;
+
+/** Checks PoseHistoryEstimator against WPILib's SwerveDrivePoseEstimator on the same inputs. */
+public class PoseHistoryEstimatorTest {
+  private static final double TOLERANCE = 1e-6;
+  private static final double PERIOD_SECONDS = 0.004;
+  private static final int SAMPLES = 750;
+  private static final int VISION_EVERY = 25;
+  private static final int VISION_DELAY = 10;
+
+  private final SwerveDriveKinematics kinematics =
+      new SwerveDriveKinematics(
+          new Translation2d(0.3, 0.3),
+          new Translation2d(0.3, -0.3),
+          new Translation2d(-0.3, 0.3),
+          new Translation2d(-0.3, -0.3));
+
+  @Test
+  public void matchesWpilibWithSmallVisionErrors() {
+    runAgainstWpilib(new Transform2d(0.05, -0.03, Rotation2d.fromDegrees(2.0)));
+  }
+
+  @Test
+  public void matchesWpilibWithLargeHeadingErrors() {
+    // Large enough that applying the gain to a linear error instead of the twist would diverge
+    runAgainstWpilib(new Transform2d(0.4, -0.3, Rotation2d.fromDegrees(60.0)));
+  }
+
+  /** Drives a curved path, adding a delayed vision measurement off by visionError every 0.1 s. */
+  private void runAgainstWpilib(Transform2d visionError) {
+    Matrix<N3, N1> visionStdDevs = VecBuilder.fill(0.5, 0.5, 0.8);
+    SwerveModulePosition[] positions = new SwerveModulePosition[4];
+    for (int i = 0; i < 4; i++) {
+      positions[i] = new SwerveModulePosition();
+    }
+    Pose2d initialPose = new Pose2d(1.0, 2.0, Rotation2d.fromDegrees(30.0));
+    PoseHistoryEstimator estimator =
+        new PoseHistoryEstimator(
+            kinematics, initialPose.getRotation(), positions, initialPose, 1.0 / PERIOD_SECONDS);
+    SwerveDrivePoseEstimator reference =
+        new SwerveDrivePoseEstimator(
+            kinematics,
+            initialPose.getRotation(),
+            positions,
+            initialPose,
+            VecBuilder.fill(0.1, 0.1, 0.1),
+            visionStdDevs);
+
+    double[] timestamps = new double[SAMPLES];
+    Pose2d[] truePoses = new Pose2d[SAMPLES];
+    Pose2d truePose = initialPose;
+    for (int k = 0; k < SAMPLES; k++) {
+      double t = k * PERIOD_SECONDS;
+      ChassisSpeeds speeds = new ChassisSpeeds(2.0, 0.5 * Math.sin(t), 1.5 * Math.cos(0.7 * t));
+      SwerveModuleState[] states = kinematics.toSwerveModuleStates(speeds);
+      for (int i = 0; i < 4; i++) {
+        positions[i].distanceMeters += states[i].speedMetersPerSecond * PERIOD_SECONDS;
+        positions[i].angle = states[i].angle;
+      }
+      truePose =
+          truePose.exp(
+              new Twist2d(
+                  speeds.vxMetersPerSecond * PERIOD_SECONDS,
+                  speeds.vyMetersPerSecond * PERIOD_SECONDS,
+                  speeds.omegaRadiansPerSecond * PERIOD_SECONDS));
+      timestamps[k] = 1.0 + t;
+      truePoses[k] = truePose;
+
+      estimator.updateWithTime(timestamps[k], truePose.getRotation(), positions);
+      reference.updateWithTime(timestamps[k], truePose.getRotation(), positions);
+
+      if (k >= VISION_DELAY && k % VISION_EVERY == 0) {
+        int measured = k - VISION_DELAY;
+        Pose2d visionPose = truePoses[measured].plus(visionError);
+        estimator.addVisionMeasurement(visionPose, timestamps[measured], visionStdDevs);
+        reference.addVisionMeasurement(visionPose, timestamps[measured], visionStdDevs);
+      }
+
+      assertPoseEquals(reference.getEstimatedPosition(), estimator.getEstimatedPosition(), k);
+    }
+
+    double past = timestamps[SAMPLES - 1 - VISION_DELAY];
+    assertPoseEquals(
+        reference.sampleAt(past).orElseThrow(), estimator.sampleAt(past).orElseThrow(), -1);
+  }
+
+  private static void assertPoseEquals(Pose2d expected, Pose2d actual, int sample) {
+    String message = "sample " + sample;
+    assertEquals(expected.getX(), actual.getX(), TOLERANCE, message);
+    assertEquals(expected.getY(), actual.getY(), TOLERANCE, message);
+    assertEquals(
+        0.0,
+        MathUtil.angleModulus(
+            expected.getRotation().getRadians() - actual.getRotation().getRadians()),
+        TOLERANCE,
+        message);
+  }
+}